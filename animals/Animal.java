@@ -6,13 +6,18 @@ import food.IEdible;
 import graphics.*;
 import mobility.Mobile;
 import mobility.Point;
+import plants.Plant;
 import utilities.MessageUtility;
+import zoo.World;
 
-import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.text.DecimalFormat;
+import java.util.SplittableRandom;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
 
 /**
  * A class that contains all fields of an animal object,
@@ -24,7 +29,8 @@ import java.util.Vector;
  */
 public abstract class Animal extends Observable implements IEdible ,IDrawable, IAnimalBehavior, Runnable {
 
-	private static final int X_DIR_RIGHT = 1, X_DIR_LEFT = -1, Y_DIR_UP = 1, Y_DIR_DOWN = -1, MIN_SIZE = 50, MAX_SIZE = 300, SPEED = 75;
+	private static final int X_DIR_RIGHT = 1, X_DIR_LEFT = -1, Y_DIR_UP = 1, Y_DIR_DOWN = -1, MIN_SIZE = 50, MAX_SIZE = 300;
+	public static final int SPEED = 75; // Milliseconds per movement step
 	private final int EAT_DISTANCE = 10;
 	private int size;
 	private String col;
@@ -35,13 +41,20 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	private int y_dir;
 	private int eatCount;
 	private ZooPanel pan;
+	private World world;
+	private RandomGenerator random = null; // Split from the world, see getRandom
 	protected BufferedImage img1 = null, img2 = null;
 	private String name;
 	private double weight;
 	private IDiet diet;
 	private Point location;
-	protected boolean threadSuspended = false;
-	private boolean exit = false;
+	protected volatile boolean threadSuspended = false;
+	private volatile boolean exit = false;
+	private volatile Thread runner = null; // The thread in run(), unparked on resume
+	private double stepBudget = 0;
+	private volatile AnimalStore store = null; // Optional column store, see bindTo
+	private int row = -1;
+	final AtomicLong checkpointed = new AtomicLong(); // See Checkpoint.save
 	private Vector<Observer> list = new Vector<>();
 
 	/**
@@ -86,79 +99,193 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 		setColor(memento.getColor());
 		setX_dir(memento.getX_dir());
 		setY_dir(memento.getY_dir());
-		setLocation(memento.getLocation());
+		setLocation(new Point(memento.getLocation().getX(), memento.getLocation().getY()));
 		setEatCount(memento.getEatCount());
-		loadImages(memento.getColor()); // Change color of animal
+		loadImages(getColorToFile(memento.getColor())); // Change color of animal
 		notifyObservers(" is restored");
 	}
 
+	/**
+	 * Called before any change to the state of this animal.
+	 * If a checkpoint of the world is open, the animal is first saved into it as it was (copy on write).
+	 * Code that changes the state from outside, like the column store, calls it too.
+	 */
+	public void beforeChange() {
+		World w = world;
+		Checkpoint checkpoint = w == null ? null : w.getCheckpoint();
+		if (checkpoint != null)
+			checkpoint.save(this);
+	}
+
+	/**
+	 * Called before this animal is advanced by dt seconds, see update.
+	 * It is saved into an open checkpoint only if dt is enough for a step, an update that does not move it
+	 * changes nothing that is saved.
+	 * @param dt (Double) Elapsed simulation time in seconds.
+	 */
+	public void beforeUpdate(double dt) {
+		World w = world;
+		if (w == null || w.getCheckpoint() == null)
+			return;
+		AnimalStore s = store;
+		if ((s != null ? s.getStepBudget(row) : stepBudget) + dt * 1000 / SPEED >= 1)
+			beforeChange();
+	}
+
 	/**
 	 * When an object implementing interface Runnable is used to create a thread,
 	 * starting the thread causes the object's run method to be called in that separately executing thread.
-	 * In this run() method we change the location of an animal object and perform related actions.
+	 * In this run() method we advance the animal one step at a time and perform related actions.
+	 * Used only when the animal is scheduled on its own thread (see ThreadPool),
+	 * otherwise the SimulationEngine calls update(dt) directly.
+	 * Sleeping, suspension and a paused world clock only park the thread and hold no monitor,
+	 * so on a virtual thread they release the carrier.
 	 */
 	@Override
 	public void run() {
+		runner = Thread.currentThread();
+		long seen = world.getClock().getStepped();
 		while (!exit) {
-			try {
-				while (diet.canEat(getPan().getFood().getFoodType())) {
-					if (location.getX() >= getPan().getFood().getLocation().getX()) {
-						this.x_dir = X_DIR_LEFT;
-						if (location.getY() >= getPan().getFood().getLocation().getY())
-							location=new Point(location.getX() - horSpeed, location.getY() - verSpeed);
-					}
-					if (location.getX() <= getPan().getFood().getLocation().getX()) {
-						this.x_dir = X_DIR_RIGHT;
-						if (location.getY() <= getPan().getFood().getLocation().getY())
-							location=new Point(location.getX() + horSpeed, location.getY() + verSpeed);
-					}
-					if (location.getX() <= getPan().getFood().getLocation().getX()) {
-						this.x_dir = X_DIR_RIGHT;
-						if (location.getY() >= getPan().getFood().getLocation().getY())
-							location=new Point(location.getX() + horSpeed, location.getY() - verSpeed);
-					}
-					if (location.getX() >= getPan().getFood().getLocation().getX()) {
-						this.x_dir = X_DIR_LEFT;
-						if (location.getY() <= getPan().getFood().getLocation().getY())
-							location=new Point(location.getX() - horSpeed, location.getY() + verSpeed);
-					}
-					getPan().repaint();
-					getPan().manageZoo();
-					try {
-						Thread.sleep(SPEED);
-					} catch (InterruptedException ignored) {}
-				}
-			} catch (NullPointerException ignored) {}
-
-			if (location.getX() >= getPan().getWidth() || location.getX() <= 0) {
-				if (location.getX() == 0) location.setX(1);
-				if (x_dir == X_DIR_RIGHT) setX_dir(X_DIR_LEFT);
-				else setX_dir(X_DIR_RIGHT);
-			}
-			if (location.getY() >= getPan().getHeight() || location.getY() <= 0) {
-				if (location.getY() == 0) location.setY(1);
-				if (y_dir == Y_DIR_UP) setY_dir(Y_DIR_DOWN);
-				else setY_dir(Y_DIR_UP);
-			}
-			location=new Point(location.getX() + horSpeed * x_dir, location.getY() + verSpeed * y_dir);
-			SwingUtilities.invokeLater(new Runnable() {
-				public void run() {
-					getPan().repaint();
-					getPan().manageZoo();
-				}
-			});
+			seen = world.getClock().awaitTick(seen); // Waits while the whole zoo is paused
+			if (exit)
+				break;
+			update(SPEED / 1000.0);
+			world.requestPass();
 			try {
 				Thread.sleep(SPEED);
 			} catch (InterruptedException ignored) {}
-			while (threadSuspended) {
-				synchronized (this) {
-					try {
-						wait();
-					} catch (InterruptedException e) {
-						e.printStackTrace(); }
-				}
+			while (threadSuspended && !exit)
+				LockSupport.park(this);
+		}
+		runner = null;
+	}
+
+	/**
+	 * Advance this animal by dt seconds of simulated time.
+	 * Every SPEED milliseconds of dt is one movement step,
+	 * leftovers are kept for the next call so the speed does not depend on the tick rate.
+	 * @param dt (Double) Elapsed simulation time in seconds.
+	 */
+	public void update(double dt) {
+		beforeUpdate(dt);
+		AnimalStore s = store;
+		if (s != null) {
+			Plant food = world.getFood();
+			s.updateRow(row, dt, SPEED, world.getWidth(), world.getHeight(),
+					food == null ? 0 : food.getLocation().getX(), food == null ? 0 : food.getLocation().getY(),
+					food == null ? null : food.getFoodType());
+			return;
+		}
+		stepBudget += dt * 1000 / SPEED;
+		while (stepBudget >= 1 && !exit) {
+			stepBudget--;
+			step();
+		}
+	}
+
+	/**
+	 * Move the state of this animal into a row of a column store.
+	 * From now on the getters and setters read and write that row,
+	 * and the store advances the animal (see AnimalStore.update).
+	 * @param store (AnimalStore) the store, null to keep the state in this object.
+	 */
+	public synchronized void bindTo(AnimalStore store) {
+		if (this.store == store)
+			return;
+		unbind();
+		if (store == null)
+			return;
+		int r;
+		synchronized (store) { // Another animal may grow the store meanwhile
+			r = store.allocate();
+			store.x[r] = location.getX();
+			store.y[r] = location.getY();
+			store.size[r] = size;
+			store.horSpeed[r] = horSpeed;
+			store.verSpeed[r] = verSpeed;
+			store.xDir[r] = x_dir;
+			store.yDir[r] = y_dir;
+			store.eatCount[r] = eatCount;
+			store.weight[r] = weight;
+			store.stepBudget[r] = stepBudget;
+			store.diet[r] = AnimalStore.dietCode(diet);
+			store.suspended[r] = threadSuspended;
+		}
+		this.row = r;
+		this.store = store; // Published after the row
+	}
+
+	/**
+	 * Copy the state back from the column store and give its row back.
+	 * Nothing is done if the animal is not bound.
+	 */
+	public synchronized void unbind() {
+		AnimalStore s = store;
+		if (s == null)
+			return;
+		synchronized (s) {
+			location = new Point(s.x[row], s.y[row]);
+			size = s.size[row];
+			horSpeed = s.horSpeed[row];
+			verSpeed = s.verSpeed[row];
+			x_dir = s.xDir[row];
+			y_dir = s.yDir[row];
+			eatCount = s.eatCount[row];
+			weight = s.weight[row];
+			stepBudget = s.stepBudget[row];
+			s.release(row);
+		}
+		store = null; // The row is kept for the readers that still hold the store
+	}
+
+	/**
+	 * A getter of the column store of this animal.
+	 * @return (AnimalStore) the store, or null if the state is kept in this object.
+	 */
+	public AnimalStore getStore() { return store; }
+
+	/**
+	 * A single movement step.
+	 * If the food in the world is suitable for this animal, it moves towards it,
+	 * otherwise it keeps moving in its current direction and bounces off the world edges.
+	 * The location is moved in place, a step does not allocate.
+	 */
+	private void step() {
+		Plant food = world.getFood();
+		if (food != null && diet.canEat(food.getFoodType())) {
+			Point target = food.getLocation();
+			if (location.getX() >= target.getX()) {
+				this.x_dir = X_DIR_LEFT;
+				if (location.getY() >= target.getY())
+					location.translate(-horSpeed, -verSpeed);
+			}
+			if (location.getX() <= target.getX()) {
+				this.x_dir = X_DIR_RIGHT;
+				if (location.getY() <= target.getY())
+					location.translate(horSpeed, verSpeed);
+			}
+			if (location.getX() <= target.getX()) {
+				this.x_dir = X_DIR_RIGHT;
+				if (location.getY() >= target.getY())
+					location.translate(horSpeed, -verSpeed);
 			}
+			if (location.getX() >= target.getX()) {
+				this.x_dir = X_DIR_LEFT;
+				if (location.getY() <= target.getY())
+					location.translate(-horSpeed, verSpeed);
+			}
+			return;
+		}
+		int bounced = location.bounce(world.getWidth(), world.getHeight());
+		if ((bounced & Point.BOUNCE_X) != 0) {
+			if (x_dir == X_DIR_RIGHT) setX_dir(X_DIR_LEFT);
+			else setX_dir(X_DIR_RIGHT);
+		}
+		if ((bounced & Point.BOUNCE_Y) != 0) {
+			if (y_dir == Y_DIR_UP) setY_dir(Y_DIR_DOWN);
+			else setY_dir(Y_DIR_UP);
 		}
+		location.translate(horSpeed * x_dir, verSpeed * y_dir);
 	}
 
 	/**
@@ -184,6 +311,8 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	 * Allows us to put the animal thread in a waiting position.
 	 */
 	public synchronized void setSuspended() { this.threadSuspended = true;
+		AnimalStore s = store;
+		if (s != null) s.setSuspended(row, true);
 	notifyObservers(" is asleep now");}
 
 	/**
@@ -193,7 +322,9 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	public synchronized void setResumed() {
 		this.exit = false;
 		this.threadSuspended = false;
-		notify();
+		AnimalStore s = store;
+		if (s != null) s.setSuspended(row, false);
+		LockSupport.unpark(runner);
 		notifyObservers(" is awake and hungry");}
 
 	/**
@@ -202,9 +333,24 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	 */
 	public synchronized void stop() {
 		exit = true;
+		Thread t = runner;
+		if (t != null)
+			t.interrupt(); // Also wakes it up from the world clock
 		notifyObservers(" is no longer exists");
 	}
 
+	/**
+	 * A getter of the suspended state.
+	 * @return (Boolean) true if the animal is asleep.
+	 */
+	public boolean isSuspended() { return threadSuspended; }
+
+	/**
+	 * A getter of the terminated state.
+	 * @return (Boolean) true if stop() was called and the animal was not resumed since.
+	 */
+	public boolean isStopped() { return exit; }
+
 	/**
 	 * A simple getter of color to file.
 	 * @param color
@@ -247,7 +393,10 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 		if (horSpeed < 0 || horSpeed > 10) {
 			MessageUtility.logSetter(getClass().getSimpleName(), "setHorSpeed", horSpeed, false);
 			return false; }
-		else this.horSpeed = horSpeed;
+		beforeChange();
+		this.horSpeed = horSpeed;
+		AnimalStore s = store;
+		if (s != null) s.setHorSpeed(row, horSpeed);
 		MessageUtility.logSetter(getClass().getSimpleName(), "setHorSpeed", horSpeed, true);
 		return true; }
 
@@ -260,7 +409,10 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 		if (verSpeed < 0 || verSpeed > 10) {
 			MessageUtility.logSetter(getClass().getSimpleName(), "setVerSpeed", verSpeed, false);
 			return false; }
-		else this.verSpeed = verSpeed;
+		beforeChange();
+		this.verSpeed = verSpeed;
+		AnimalStore s = store;
+		if (s != null) s.setVerSpeed(row, verSpeed);
 		MessageUtility.logSetter(getClass().getSimpleName(), "setVerSpeed", verSpeed, true);
 		return true; }
 
@@ -273,7 +425,10 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 		if (x_dir != X_DIR_LEFT && x_dir != X_DIR_RIGHT) {
 			return false;
 		}
-		else this.x_dir = x_dir;
+		beforeChange();
+		this.x_dir = x_dir;
+		AnimalStore s = store;
+		if (s != null) s.setXDir(row, x_dir);
 		return true; }
 
 	/**
@@ -285,7 +440,10 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 		if (y_dir != Y_DIR_DOWN && y_dir != Y_DIR_UP) {
 			return false;
 		}
-		else this.y_dir = y_dir;
+		beforeChange();
+		this.y_dir = y_dir;
+		AnimalStore s = store;
+		if (s != null) s.setYDir(row, y_dir);
 		return true; }
 
 	/**
@@ -296,7 +454,10 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	 */
 	public boolean setSize(int size) {
 		if (size < MIN_SIZE || size > MAX_SIZE) return false;
-		else this.size = size;
+		beforeChange();
+		this.size = size;
+		AnimalStore s = store;
+		if (s != null) s.setSize(row, size);
 		return true; }
 
 	/**
@@ -316,6 +477,7 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	 */
 	public boolean setColor(String col) {
 		if (col.equals("Natural") || col.equals("Blue") || col.equals("Red")) {
+			beforeChange();
 			this.col = col;
 			return true; }
 		return false;
@@ -323,6 +485,7 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 
 	/**
 	 * A setter of the panel to be used with GUI components.
+	 * The animal also moves in the world drawn by the panel.
 	 * @param pan - (ZooPanel) Panel for drawing animals.
 	 * @return (Boolean) true if applied, otherwise false.
 	 */
@@ -330,44 +493,93 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 		if (pan == null)
 			return false;
 		else this.pan = pan;
+		return setWorld(pan.getWorld());
+	}
+
+	/**
+	 * A setter of the world the animal moves in, without any panel.
+	 * @param world - (World) bounds and food of the zoo.
+	 * @return (Boolean) true if applied, otherwise false.
+	 */
+	public boolean setWorld(World world) {
+		if (world == null)
+			return false;
+		if (this.world != world)
+			this.random = world.splitRandom();
+		this.world = world;
 		return true;
 	}
 
+	/**
+	 * A getter of the world the animal moves in.
+	 * @return (World) world, or null if not set.
+	 */
+	public World getWorld() { return this.world; }
+
+	/**
+	 * A getter of the random generator of this animal.
+	 * It is split from the generator of its world, so a world with the same seed
+	 * and the same animals gives every animal the same numbers.
+	 * @return (RandomGenerator) generator, an unseeded one if the animal has no world.
+	 */
+	public RandomGenerator getRandom() {
+		if (random == null)
+			random = new SplittableRandom();
+		return random;
+	}
+
 	/**
 	 * A simple function to draw an animal on the panel.
+	 * The sprite is taken pre-scaled from the atlas, so this is an unscaled blit.
 	 * @param g
 	 * 			Graphics of pan.
 	 */
 	public void drawObject (Graphics g)
 	{
+		int x = getX(), y = getY(), size = getSize();
 		if(getX_dir()==1) // animal goes to the right side
-			g.drawImage(img1, location.getX()-size/2, location.getY()-size/10, size/2, size, pan);
+			g.drawImage(SpriteAtlas.get(img1, size/2, size), x-size/2, y-size/10, pan);
 		else // animal goes to the left side
-			g.drawImage(img2, location.getX(), location.getY()-size/10, size/2, size, pan);
+			g.drawImage(SpriteAtlas.get(img2, size/2, size), x, y-size/10, pan);
+	}
+
+	/**
+	 * The area drawn by drawObject.
+	 * @return (Rectangle) bounds of the sprite on the panel.
+	 */
+	public Rectangle getBounds()
+	{
+		int x = getX(), y = getY(), size = getSize();
+		return new Rectangle(getX_dir()==1 ? x-size/2 : x, y-size/10, size/2, size);
 	}
 
 	/**
 	 * A simple function to increase eatCount.
 	 */
-	public void eatInc() { this.eatCount++; }
+	public void eatInc() {
+		beforeChange();
+		this.eatCount++;
+		AnimalStore s = store;
+		if (s != null) s.incrementEatCount(row);
+	}
 
 	/**
 	 * A getter of eatCount.
 	 * @return eatCount.
 	 */
-	public int getEatCount() { return this.eatCount; }
+	public int getEatCount() { AnimalStore s = store; return s != null ? s.getEatCount(row) : this.eatCount; }
 
 	/**
 	 * A getter of horSpeed.
 	 * @return (Integer) horSpeed.
 	 */
-	public int getHorSpeed() { return this.horSpeed; }
+	public int getHorSpeed() { AnimalStore s = store; return s != null ? s.getHorSpeed(row) : this.horSpeed; }
 
 	/**
 	 * A getter of verSpeed.
 	 * @return (Integer) verSpeed.
 	 */
-	public int getVerSpeed() { return this.verSpeed; }
+	public int getVerSpeed() { AnimalStore s = store; return s != null ? s.getVerSpeed(row) : this.verSpeed; }
 
 	/**
 	 * A getter of coordChanged.
@@ -390,19 +602,19 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	 * A getter of X coordinate.
 	 * @return (Integer) X coordinate.
 	 */
-	public int getX_dir() { return x_dir; }
+	public int getX_dir() { AnimalStore s = store; return s != null ? s.getXDir(row) : x_dir; }
 
 	/**
 	 * A getter of Y coordinate.
 	 * @return (Integer) X coordinate.
 	 */
-	public int getY_dir() { return y_dir; }
+	public int getY_dir() { AnimalStore s = store; return s != null ? s.getYDir(row) : y_dir; }
 
 	/**
 	 * A getter of animal size on the panel.
 	 * @return (Integer) animal size.
 	 */
-	public int getSize() { return this.size; }
+	public int getSize() { AnimalStore s = store; return s != null ? s.getSize(row) : this.size; }
 
 	/**
 	 * A getter of animal's panel.
@@ -471,6 +683,8 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	public boolean setDiet(IDiet diet)
 	{
 		this.diet = diet;
+		AnimalStore s = store;
+		if (s != null) s.setDiet(row, AnimalStore.dietCode(diet));
 		MessageUtility.logSetter(getClass().getSimpleName(), "setDiet", diet.getClass().getSimpleName(), true);
 		return true;
 	}
@@ -495,7 +709,10 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 		if (weight > 0)
 		{
 			MessageUtility.logSetter(this.getClass().getSimpleName(), "setWeight", weight, true);
+			beforeChange();
 			this.weight = weight;
+			AnimalStore s = store;
+			if (s != null) s.setWeight(row, weight);
 			return true;
 		}
 		MessageUtility.logSetter(this.getClass().getSimpleName(), "setWeight", weight, false);
@@ -508,7 +725,8 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	 * @return animal weight.
 	 */
 	public double getWeight() {
-		return this.weight; }
+		AnimalStore s = store;
+		return s != null ? s.getWeight(row) : this.weight; }
 
 	/**
 	 * A simple getter of animal food type.
@@ -553,24 +771,45 @@ public abstract class Animal extends Observable implements IEdible ,IDrawable, I
 	 */
 	public boolean setLocation(Point other)
 	{
+		beforeChange();
 		this.location = other;
+		AnimalStore s = store;
+		if (s != null) s.setLocation(row, other.getX(), other.getY());
 		return true;
 	}
 
 	/**
 	 * A simple getter of location.
+	 * When the animal is bound to a store, it is a new point read from its row, never written by the reader.
+	 * Code that reads every animal, like painting and hunting, uses getX and getY, which do not allocate.
 	 * @return (Point) location.
 	 */
 	public Point getLocation()
 	{
-		return this.location;
+		AnimalStore s = store;
+		return s != null ? s.getLocation(row) : this.location;
 	}
 
+	/**
+	 * A getter of the X of the location, without allocating or taking a lock.
+	 * @return (Integer) X.
+	 */
+	public int getX() { AnimalStore s = store; return s != null ? s.getX(row) : this.location.getX(); }
+
+	/**
+	 * A getter of the Y of the location, without allocating or taking a lock.
+	 * @return (Integer) Y.
+	 */
+	public int getY() { AnimalStore s = store; return s != null ? s.getY(row) : this.location.getY(); }
+
 	/**
 	 * A simple setter of eatCount.
 	 * @param eatCount (Integer) eat counter.
 	 */
 	public void setEatCount(int eatCount) {
+		beforeChange();
 		this.eatCount = eatCount;
+		AnimalStore s = store;
+		if (s != null) s.setEatCount(row, eatCount);
 	}
 }
@@ -0,0 +1,261 @@
+package animals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A registry of all the animals in the zoo, shared by the GUI, the panel and the simulation.
+ * Each animal gets a stable integer id for as long as it is registered.
+ * Readers never lock: they iterate an immutable snapshot of the registry,
+ * so painting and hunting never see a half-applied change and never throw ConcurrentModificationException.
+ * Writers are serialized among themselves, adding and removing are O(1) (amortized).
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Animal
+ */
+public class AnimalRegistry implements Iterable<Animal> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * A registered animal. The removal epoch is set once, when the animal leaves the registry.
+     */
+    private static final class Entry {
+        final int id;
+        final Animal animal;
+        volatile long removedAt = Long.MAX_VALUE;
+
+        Entry(int id, Animal animal) {
+            this.id = id;
+            this.animal = animal;
+        }
+    }
+
+    /**
+     * An epoch of the registry. The array is shared between epochs:
+     * a writer only appends past the length of every published snapshot on it,
+     * and a removal only stamps the entry, so an old snapshot never changes.
+     */
+    private static final class Snapshot {
+        final Entry[] entries;
+        final int length;
+        final int live;
+        final long epoch;
+
+        Snapshot(Entry[] entries, int length, int live, long epoch) {
+            this.entries = entries;
+            this.length = length;
+            this.live = live;
+            this.epoch = epoch;
+        }
+
+        boolean isVisible(Entry entry) { return entry.removedAt > epoch; }
+    }
+
+    private volatile Snapshot current = new Snapshot(new Entry[INITIAL_CAPACITY], 0, 0, 0);
+    private final ConcurrentHashMap<Integer, Entry> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Animal, Entry> byAnimal = new ConcurrentHashMap<>();
+    private int nextId = 0;
+
+    /**
+     * Register an animal.
+     * @param animal (Animal) to be added.
+     * @return (Integer) id of the animal, the existing one if it is already registered.
+     */
+    public synchronized int add(Animal animal) {
+        Entry entry = byAnimal.get(animal);
+        if (entry != null)
+            return entry.id;
+        entry = new Entry(nextId++, animal);
+        Snapshot snap = current;
+        Entry[] entries = snap.entries;
+        int length = snap.length;
+        if (length == entries.length) {
+            entries = compact(snap, Math.max(INITIAL_CAPACITY, snap.live * 2 + 1));
+            length = snap.live;
+        }
+        entries[length] = entry;
+        byId.put(entry.id, entry);
+        byAnimal.put(animal, entry);
+        current = new Snapshot(entries, length + 1, snap.live + 1, snap.epoch + 1);
+        return entry.id;
+    }
+
+    /**
+     * Unregister an animal.
+     * @param animal (Animal) to be removed.
+     * @return True if the animal was registered, otherwise false.
+     */
+    public synchronized boolean remove(Animal animal) {
+        Entry entry = byAnimal.remove(animal);
+        if (entry == null)
+            return false;
+        byId.remove(entry.id);
+        Snapshot snap = current;
+        entry.removedAt = snap.epoch + 1;
+        Entry[] entries = snap.entries;
+        int length = snap.length;
+        if (length > INITIAL_CAPACITY && length - (snap.live - 1) > length / 2) { // Mostly removed entries
+            entries = compact(snap, entries.length);
+            length = snap.live - 1;
+        }
+        current = new Snapshot(entries, length, snap.live - 1, snap.epoch + 1);
+        return true;
+    }
+
+    /**
+     * Unregister an animal by its id.
+     * @param id (Integer) id of the animal.
+     * @return True if the animal was registered, otherwise false.
+     */
+    public boolean remove(int id) {
+        Entry entry = byId.get(id);
+        return entry != null && remove(entry.animal);
+    }
+
+    /**
+     * Unregister all the animals.
+     */
+    public synchronized void clear() {
+        Snapshot snap = current;
+        for (int i = 0; i < snap.length; i++)
+            if (snap.isVisible(snap.entries[i]))
+                snap.entries[i].removedAt = snap.epoch + 1;
+        byId.clear();
+        byAnimal.clear();
+        current = new Snapshot(new Entry[INITIAL_CAPACITY], 0, 0, snap.epoch + 1);
+    }
+
+    /**
+     * A getter of animal by id.
+     * @param id (Integer) id of the animal.
+     * @return (Animal) the animal, or null if there is no such id.
+     */
+    public Animal get(int id) {
+        Entry entry = byId.get(id);
+        return entry == null ? null : entry.animal;
+    }
+
+    /**
+     * A getter of the id of an animal.
+     * @param animal (Animal) registered animal.
+     * @return (Integer) id, or -1 if the animal is not registered.
+     */
+    public int getId(Animal animal) {
+        Entry entry = byAnimal.get(animal);
+        return entry == null ? -1 : entry.id;
+    }
+
+    /**
+     * Check if an animal is registered.
+     * @param animal (Animal) to look for.
+     * @return True if registered, otherwise false.
+     */
+    public boolean contains(Animal animal) { return byAnimal.containsKey(animal); }
+
+    /**
+     * A getter of the number of registered animals.
+     * @return (Integer) animals count.
+     */
+    public int size() { return current.live; }
+
+    /**
+     * Check if there are no animals.
+     * @return True if empty, otherwise false.
+     */
+    public boolean isEmpty() { return current.live == 0; }
+
+    /**
+     * Copy the current animals, in registration order.
+     * @return (List) an unmodifiable list of the animals.
+     */
+    public List<Animal> snapshot() {
+        Snapshot snap = current;
+        ArrayList<Animal> list = new ArrayList<>(snap.live);
+        for (int i = 0; i < snap.length; i++)
+            if (snap.isVisible(snap.entries[i]))
+                list.add(snap.entries[i].animal);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Iterate the animals registered when the iteration started, in registration order.
+     * Changes made during the iteration are not seen by it.
+     * @return (Iterator) of the animals.
+     */
+    @Override
+    public Iterator<Animal> iterator() {
+        final Snapshot snap = current;
+        return new Iterator<>() {
+            private int index = advance(0);
+
+            private int advance(int from) {
+                while (from < snap.length && !snap.isVisible(snap.entries[from]))
+                    from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() { return index < snap.length; }
+
+            @Override
+            public Animal next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                Animal animal = snap.entries[index].animal;
+                index = advance(index + 1);
+                return animal;
+            }
+        };
+    }
+
+    /**
+     * The animals registered at one instant, with their ids.
+     * Taking a view does not copy anything, and the view never changes after.
+     */
+    public static final class View {
+        private final Snapshot snap;
+
+        private View(Snapshot snap) { this.snap = snap; }
+
+        /**
+         * A getter of the number of animals in the view.
+         * @return (Integer) animals count.
+         */
+        public int size() { return snap.live; }
+
+        /**
+         * Visit the animals of the view, in registration order.
+         * @param action (ObjIntConsumer) called with each animal and its id.
+         */
+        public void forEach(ObjIntConsumer<Animal> action) {
+            for (int i = 0; i < snap.length; i++)
+                if (snap.isVisible(snap.entries[i]))
+                    action.accept(snap.entries[i].animal, snap.entries[i].id);
+        }
+    }
+
+    /**
+     * Take a view of the animals registered now, in O(1).
+     * @return (View) the view.
+     */
+    public View view() { return new View(current); }
+
+    /**
+     * Copy the live entries of a snapshot into a new array.
+     */
+    private static Entry[] compact(Snapshot snap, int capacity) {
+        Entry[] entries = new Entry[capacity];
+        int length = 0;
+        for (int i = 0; i < snap.length; i++)
+            if (snap.entries[i].removedAt == Long.MAX_VALUE)
+                entries[length++] = snap.entries[i];
+        return entries;
+    }
+}
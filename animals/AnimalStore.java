@@ -0,0 +1,278 @@
+package animals;
+
+import diet.Carnivore;
+import diet.Herbivore;
+import diet.IDiet;
+import diet.Omnivore;
+import food.EFoodType;
+import mobility.Point;
+
+import java.util.Arrays;
+
+/**
+ * A structure-of-arrays store of the animals' state.
+ * Each animal bound to the store owns one row, and every field is kept in a primitive column,
+ * so the movement loop runs over plain arrays without touching the Animal objects or allocating.
+ * The store is optional, an animal that is not bound keeps its state in its own fields.
+ * The columns are replaced when the store grows, so they are written only under the lock of the store:
+ * by the movement loop, by the setters of a single row, or in a block synchronized on the store.
+ * The int getters of a single row take no lock, they are called for every animal by the painting, the hunting
+ * and the event log. A growth publishes its new columns by writing the volatile capacity last, and a getter reads it
+ * first, so it always finds the row. It may read a value the movement loop is changing, like any reader of
+ * a moving animal: get the location with getX and getY of the same row.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Animal#bindTo(AnimalStore)
+ */
+public class AnimalStore {
+
+    /**
+     * Diet codes of the diet column.
+     */
+    public static final byte CARNIVORE = 0, HERBIVORE = 1, OMNIVORE = 2;
+    private static final IDiet[] DIETS = {new Carnivore(), new Herbivore(), new Omnivore()};
+    private static final boolean[][] CAN_EAT = new boolean[DIETS.length][EFoodType.values().length];
+    private static final int INITIAL_CAPACITY = 64;
+
+    static {
+        for (int code = 0; code < DIETS.length; code++)
+            for (EFoodType type : EFoodType.values())
+                CAN_EAT[code][type.ordinal()] = DIETS[code].canEat(type);
+    }
+
+    int[] x, y, size, horSpeed, verSpeed, xDir, yDir, eatCount;
+    double[] weight, stepBudget;
+    byte[] diet;
+    boolean[] used, suspended;
+    private int[] free;
+    private int freeCount = 0;
+    private int rows = 0; // High-water mark of allocated rows
+    private int live = 0;
+    private volatile int capacity; // Written after the columns, read before them by the getters without the lock
+
+    /**
+     * A ctor of an empty store.
+     */
+    public AnimalStore() { this(INITIAL_CAPACITY); }
+
+    /**
+     * A ctor of an empty store.
+     * @param capacity (Integer) Initial number of rows.
+     */
+    public AnimalStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        x = new int[capacity]; y = new int[capacity]; size = new int[capacity];
+        horSpeed = new int[capacity]; verSpeed = new int[capacity];
+        xDir = new int[capacity]; yDir = new int[capacity]; eatCount = new int[capacity];
+        weight = new double[capacity]; stepBudget = new double[capacity];
+        diet = new byte[capacity];
+        used = new boolean[capacity]; suspended = new boolean[capacity];
+        free = new int[capacity];
+        this.capacity = capacity;
+    }
+
+    /**
+     * A getter of the diet code of a diet object.
+     * @param diet (IDiet) diet of an animal.
+     * @return (Byte) diet code.
+     */
+    public static byte dietCode(IDiet diet) {
+        if (diet instanceof Carnivore) return CARNIVORE;
+        if (diet instanceof Omnivore) return OMNIVORE;
+        return HERBIVORE;
+    }
+
+    /**
+     * A getter of the number of bound animals.
+     * @return (Integer) rows in use.
+     */
+    public synchronized int size() { return live; }
+
+    /**
+     * Take a free row, rows of released animals are reused.
+     * @return (Integer) the row.
+     */
+    synchronized int allocate() {
+        int row;
+        if (freeCount > 0)
+            row = free[--freeCount];
+        else {
+            if (rows == x.length)
+                grow(x.length * 2);
+            row = rows++;
+        }
+        used[row] = true;
+        live++;
+        return row;
+    }
+
+    /**
+     * Give a row back to the store.
+     * @param row (Integer) the row.
+     */
+    synchronized void release(int row) {
+        if (!used[row])
+            return;
+        used[row] = false;
+        free[freeCount++] = row;
+        live--;
+    }
+
+    /**
+     * Advance every active row by dt seconds, one step per 75 ms like Animal.update.
+     * Rows that can eat the food chase it, the others move freely and bounce off the edges.
+     * @param dt (Double) Elapsed simulation time in seconds.
+     * @param stepMillis (Integer) Length of a movement step in milliseconds.
+     * @param width (Integer) Width of the world.
+     * @param height (Integer) Height of the world.
+     * @param foodX (Integer) X of the food.
+     * @param foodY (Integer) Y of the food.
+     * @param foodType (EFoodType) type of the food, null if there is no food.
+     * @return (Integer) number of rows that moved.
+     */
+    public synchronized int update(double dt, int stepMillis, int width, int height,
+                                   int foodX, int foodY, EFoodType foodType) {
+        double steps = dt * 1000 / stepMillis;
+        int moved = 0;
+        for (int r = 0; r < rows; r++)
+            if (used[r] && !suspended[r] && advance(r, steps, width, height, foodX, foodY, foodType))
+                moved++;
+        return moved;
+    }
+
+    /**
+     * Advance a single row by dt seconds, see update.
+     * @return (Boolean) true if the row moved.
+     */
+    synchronized boolean updateRow(int row, double dt, int stepMillis, int width, int height,
+                                   int foodX, int foodY, EFoodType foodType) {
+        return used[row] && advance(row, dt * 1000 / stepMillis, width, height, foodX, foodY, foodType);
+    }
+
+    /**
+     * A getter of the location of a row, see getX.
+     * @param row (Integer) the row.
+     * @return (Point) a new point, the row may move on while it is read.
+     */
+    synchronized Point getLocation(int row) { return new Point(x[row], y[row]); }
+
+    synchronized void setLocation(int row, int x, int y) { this.x[row] = x; this.y[row] = y; }
+
+    /**
+     * A getter of the X of a row, without the lock and without allocating.
+     * @param row (Integer) the row.
+     * @return (Integer) X, the row may move on while it is read.
+     */
+    int getX(int row) { return capacity > row ? x[row] : 0; }
+
+    int getY(int row) { return capacity > row ? y[row] : 0; }
+
+    int getSize(int row) { return capacity > row ? size[row] : 0; }
+
+    synchronized void setSize(int row, int size) { this.size[row] = size; }
+
+    int getHorSpeed(int row) { return capacity > row ? horSpeed[row] : 0; }
+
+    synchronized void setHorSpeed(int row, int horSpeed) { this.horSpeed[row] = horSpeed; }
+
+    int getVerSpeed(int row) { return capacity > row ? verSpeed[row] : 0; }
+
+    synchronized void setVerSpeed(int row, int verSpeed) { this.verSpeed[row] = verSpeed; }
+
+    int getXDir(int row) { return capacity > row ? xDir[row] : 0; }
+
+    synchronized void setXDir(int row, int xDir) { this.xDir[row] = xDir; }
+
+    int getYDir(int row) { return capacity > row ? yDir[row] : 0; }
+
+    synchronized void setYDir(int row, int yDir) { this.yDir[row] = yDir; }
+
+    int getEatCount(int row) { return capacity > row ? eatCount[row] : 0; }
+
+    synchronized void setEatCount(int row, int eatCount) { this.eatCount[row] = eatCount; }
+
+    synchronized void incrementEatCount(int row) { eatCount[row]++; }
+
+    synchronized double getWeight(int row) { return weight[row]; }
+
+    synchronized void setWeight(int row, double weight) { this.weight[row] = weight; }
+
+    synchronized void setDiet(int row, byte diet) { this.diet[row] = diet; }
+
+    synchronized void setSuspended(int row, boolean suspended) { this.suspended[row] = suspended; }
+
+    /**
+     * A getter of the time a row has left towards its next step.
+     * @param row (Integer) the row.
+     * @return (Double) steps, the row steps once this reaches 1.
+     */
+    synchronized double getStepBudget(int row) { return stepBudget[row]; }
+
+    private boolean advance(int r, double steps, int width, int height, int foodX, int foodY, EFoodType foodType) {
+        stepBudget[r] += steps;
+        if (stepBudget[r] < 1)
+            return false;
+        boolean chase = foodType != null && CAN_EAT[diet[r]][foodType.ordinal()];
+        while (stepBudget[r] >= 1) {
+            stepBudget[r]--;
+            if (chase)
+                chase(r, foodX, foodY);
+            else
+                roam(r, width, height);
+        }
+        return true;
+    }
+
+    /**
+     * One step towards the food, the same rules as Animal.
+     */
+    private void chase(int r, int foodX, int foodY) {
+        if (x[r] >= foodX) {
+            xDir[r] = -1;
+            if (y[r] >= foodY) { x[r] -= horSpeed[r]; y[r] -= verSpeed[r]; }
+        }
+        if (x[r] <= foodX) {
+            xDir[r] = 1;
+            if (y[r] <= foodY) { x[r] += horSpeed[r]; y[r] += verSpeed[r]; }
+        }
+        if (x[r] <= foodX) {
+            xDir[r] = 1;
+            if (y[r] >= foodY) { x[r] += horSpeed[r]; y[r] -= verSpeed[r]; }
+        }
+        if (x[r] >= foodX) {
+            xDir[r] = -1;
+            if (y[r] <= foodY) { x[r] -= horSpeed[r]; y[r] += verSpeed[r]; }
+        }
+    }
+
+    /**
+     * One free step, bouncing off the edges by the rule of Point.bounce, like Animal.
+     */
+    private void roam(int r, int width, int height) {
+        int bounced = Point.bounce(x[r], y[r], width, height);
+        if ((bounced & Point.BOUNCE_X) != 0) {
+            x[r] = Point.offEdge(x[r]);
+            xDir[r] = -xDir[r];
+        }
+        if ((bounced & Point.BOUNCE_Y) != 0) {
+            y[r] = Point.offEdge(y[r]);
+            yDir[r] = -yDir[r];
+        }
+        x[r] += horSpeed[r] * xDir[r];
+        y[r] += verSpeed[r] * yDir[r];
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity); y = Arrays.copyOf(y, capacity);
+        size = Arrays.copyOf(size, capacity);
+        horSpeed = Arrays.copyOf(horSpeed, capacity); verSpeed = Arrays.copyOf(verSpeed, capacity);
+        xDir = Arrays.copyOf(xDir, capacity); yDir = Arrays.copyOf(yDir, capacity);
+        eatCount = Arrays.copyOf(eatCount, capacity);
+        weight = Arrays.copyOf(weight, capacity); stepBudget = Arrays.copyOf(stepBudget, capacity);
+        diet = Arrays.copyOf(diet, capacity);
+        used = Arrays.copyOf(used, capacity); suspended = Arrays.copyOf(suspended, capacity);
+        free = Arrays.copyOf(free, capacity);
+        this.capacity = capacity; // Publish the new columns
+    }
+}
@@ -0,0 +1,69 @@
+package animals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Keeps every backup frame in a file of its own, with no limit on the number of frames.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Caretaker
+ */
+public class BackupDirectory implements BackupStore {
+    private static final String FULL = ".zoo", DELTA = ".zod";
+
+    private final ArrayList<Path> files = new ArrayList<>();
+    private Path dir;
+    private long count = 0;
+
+    /**
+     * A ctor of backup directory.
+     * @param dir (Path) the directory, created if needed, or null for a temporary one, deleted on exit.
+     */
+    public BackupDirectory(Path dir) { this.dir = dir; }
+
+    @Override
+    public synchronized boolean add(ByteBuffer frame, boolean full) throws IOException {
+        Path file = getDirectory().resolve("backup-" + count + (full ? FULL : DELTA));
+        Snapshot.writeFile(file, frame);
+        file.toFile().deleteOnExit();
+        files.add(file);
+        count++;
+        return true;
+    }
+
+    @Override
+    public synchronized ByteBuffer get(int index) throws IOException {
+        return Snapshot.readFile(files.get(index)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public synchronized boolean isFull(int index) { return files.get(index).getFileName().toString().endsWith(FULL); }
+
+    @Override
+    public synchronized void removeLast() throws IOException { Files.deleteIfExists(files.remove(files.size() - 1)); }
+
+    @Override
+    public synchronized int size() { return files.size(); }
+
+    @Override
+    public void close() {}
+
+    /**
+     * A getter of the directory, created if needed.
+     * @return (Path) the directory.
+     * @throws IOException if it cannot be created.
+     */
+    public synchronized Path getDirectory() throws IOException {
+        if (dir == null) {
+            dir = Files.createTempDirectory("zoo-backups");
+            dir.toFile().deleteOnExit();
+        }
+        else Files.createDirectories(dir);
+        return dir;
+    }
+}
@@ -0,0 +1,54 @@
+package animals;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Where the Caretaker keeps its backups, a list of frames from the oldest to the newest.
+ * A frame is a full Snapshot or a SnapshotDelta of the frame before it.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see BackupDirectory
+ * @see HistoryRing
+ */
+public interface BackupStore extends Closeable {
+
+    /**
+     * Add a frame after the newest one.
+     * The store may drop its oldest frames to make room, but never the full snapshot of a delta it keeps.
+     * @param frame (ByteBuffer) the frame, from its position to its limit.
+     * @param full (Boolean) true for a full snapshot, false for a delta.
+     * @return True if added, false if a delta does not fit without dropping its full snapshot.
+     * @throws IOException if the frame cannot be written.
+     */
+    boolean add(ByteBuffer frame, boolean full) throws IOException;
+
+    /**
+     * A getter of a frame.
+     * @param index (Integer) 0 for the oldest frame, size() - 1 for the newest.
+     * @return (ByteBuffer) the frame, read only.
+     * @throws IOException if the frame cannot be read.
+     */
+    ByteBuffer get(int index) throws IOException;
+
+    /**
+     * Check the kind of a frame.
+     * @param index (Integer) index of the frame.
+     * @return True if it is a full snapshot, false if it is a delta.
+     */
+    boolean isFull(int index);
+
+    /**
+     * Drop the newest frame.
+     * @throws IOException if it cannot be dropped.
+     */
+    void removeLast() throws IOException;
+
+    /**
+     * A getter of the number of frames.
+     * @return (Integer) frames count.
+     */
+    int size();
+}
@@ -2,42 +2,164 @@ package animals;
 
 import plants.Plant;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.EmptyStackException;
-import java.util.Stack;
+import java.util.List;
 
+/**
+ * Keeps the backups of the zoo, last in first out.
+ * The backups are kept in a BackupStore, files in a directory or a memory-mapped HistoryRing,
+ * so a backup does not change when the animals do and their number is not limited by the heap.
+ * Most backups are deltas (see SnapshotDelta) that hold only what changed since the backup before,
+ * with a full Snapshot every few backups, so a backup costs about as much as the animals that changed.
+ * Any backup in the history can be rebuilt from the last full snapshot before it.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Snapshot
+ */
 public class Caretaker {
-    private final Stack<ArrayList <Memento>> stack = new Stack<>();
-    private static final int MAX = 3;
+    public static final int DEFAULT_FULL_EVERY = 10;
+
+    private final BackupStore store;
+    private final int fullEvery;
+    private Snapshot last = null; // The newest backup, the base of the next delta, null if not read yet
+    private int sinceFull = 0; // Deltas since the newest full snapshot
+    private int lastBytes = 0;
 
     private Plant food = null;
 
-    public void addMemento(ArrayList<Memento> mementos) {
-        for (Memento memento : mementos)
-            memento.getAnimal().notifyObservers(" is backed up");
-        stack.add(mementos);
+    /**
+     * A ctor of caretaker that keeps its backups in a temporary directory, deleted on exit.
+     */
+    public Caretaker() { this(new BackupDirectory(null), DEFAULT_FULL_EVERY); }
+
+    /**
+     * A ctor of caretaker.
+     * @param store (BackupStore) where the backups are kept.
+     * @param fullEvery (Integer) a full snapshot every fullEvery backups, 1 for no deltas.
+     */
+    public Caretaker(BackupStore store, int fullEvery) {
+        this.store = store;
+        this.fullEvery = Math.max(1, fullEvery);
+    }
+
+    /**
+     * Back up the zoo.
+     * @param mementos (List) a memento of every animal.
+     * @param food (Plant) the food, or null for none.
+     * @return True if the backup was written, otherwise false.
+     */
+    public synchronized boolean addMemento(List<Memento> mementos, Plant food) {
+        return addSnapshot(new Snapshot(mementos, food));
     }
 
-    public ArrayList <Memento> getMemento() {
+    /**
+     * Back up the zoo, as a delta of the backup before when possible.
+     * @param snapshot (Snapshot) the zoo.
+     * @return True if the backup was written, otherwise false.
+     */
+    public synchronized boolean addSnapshot(Snapshot snapshot) {
         try {
-            return stack.pop();
-        } catch (EmptyStackException exception) {
+            if (store.size() == 0)
+                last = null; // Nothing to make a delta of, the store may also have dropped it
+            else if (last == null) {
+                last = getSnapshot(store.size() - 1);
+                sinceFull = store.size() - 1 - lastFull(store.size() - 1);
+            }
+            boolean full = last == null || sinceFull + 1 >= fullEvery
+                    || !SnapshotDelta.isSupported(last) || !SnapshotDelta.isSupported(snapshot);
+            ByteBuffer frame = full ? null : SnapshotDelta.encode(last, snapshot);
+            int bytes = full ? 0 : frame.remaining();
+            if (full || !store.add(frame, false)) {
+                frame = ByteBuffer.allocate(snapshot.getBytes());
+                snapshot.writeTo(frame);
+                bytes = frame.flip().remaining();
+                store.add(frame, true);
+                full = true;
+            }
+            lastBytes = bytes;
+            last = snapshot;
+            sinceFull = full ? 0 : sinceFull + 1;
+            return true;
+        } catch (IOException exception) {
+            System.out.println("Backup failed: " + exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Take the last backup, its food is then returned by getFood.
+     * The backup is removed only once it has been read, a backup that cannot be read stays in the history.
+     * @return (ArrayList) a memento of every animal, or null if there is no backup.
+     * @throws IOException if the backup cannot be read or removed, it is then kept.
+     */
+    public synchronized ArrayList<Memento> getMemento() throws IOException {
+        if (store.size() == 0) {
             System.out.println("Stack is empty!");
             return null;
         }
+        Snapshot snapshot = getSnapshot(store.size() - 1);
+        last = null;
+        store.removeLast();
+        food = snapshot.getFood();
+        return new ArrayList<>(snapshot.getMementos());
     }
 
-    public boolean isEmpty()
-    {
-        return stack.isEmpty();
+    /**
+     * Rebuild a backup of the history, without taking it.
+     * @param index (Integer) 0 for the oldest backup, size() - 1 for the newest.
+     * @return (Snapshot) the zoo at that backup.
+     * @throws IOException if the backup cannot be read.
+     */
+    public synchronized Snapshot getSnapshot(int index) throws IOException {
+        if (index == store.size() - 1 && last != null)
+            return last;
+        int full = lastFull(index);
+        Snapshot snapshot = Snapshot.readFrom(store.get(full));
+        for (int i = full + 1; i <= index; i++) {
+            ByteBuffer delta = store.get(i);
+            if (!SnapshotDelta.isDelta(delta))
+                throw new IOException("Backup " + i + " is not a delta");
+            snapshot = SnapshotDelta.apply(snapshot, delta);
+        }
+        return snapshot;
+    }
+
+    private int lastFull(int index) throws IOException {
+        for (int i = index; i >= 0; i--)
+            if (store.isFull(i))
+                return i;
+        throw new IOException("No full snapshot before backup " + index);
     }
 
-    public boolean isAvailable()
+    public synchronized boolean isEmpty()
     {
-        return stack.size() < MAX;
+        return store.size() == 0;
     }
 
-    public void setFood(Plant food) {this.food = food;}
+    /**
+     * A getter of the number of backups.
+     * @return (Integer) backups count.
+     */
+    public synchronized int size() { return store.size(); }
+
+    /**
+     * A getter of the size of the newest backup.
+     * @return (Integer) bytes written for it, a delta or a full snapshot.
+     */
+    public synchronized int getLastBytes() { return lastBytes; }
+
+    /**
+     * A getter of the food of the last taken backup.
+     * @return (Plant) the food, or null for none.
+     */
+    public synchronized Plant getFood() { return food; }
 
-    public Plant getFood() { return food; }
-}
\ No newline at end of file
+    /**
+     * A getter of where the backups are kept.
+     * @return (BackupStore) the store.
+     */
+    public BackupStore getStore() { return store; }
+}
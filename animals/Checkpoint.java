@@ -0,0 +1,136 @@
+package animals;
+
+import mobility.Point;
+import plants.Plant;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A copy-on-write snapshot of the zoo, taken while the simulation keeps running.
+ * Opening a checkpoint copies nothing: it keeps a view of the registry and the food.
+ * From then on, an animal that is about to change first saves a memento of itself into the checkpoint,
+ * and finish() saves every animal that did not change, so all the mementos are of the instant it was opened.
+ * A writer pays at most one memento per animal per checkpoint, and none for the animals finish() reached first.
+ * The time writers spend copying or waiting for a copy is counted, it is the real cost of a checkpoint
+ * to the simulation, far more than the pause of opening it.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Animal#beforeChange()
+ */
+public class Checkpoint {
+    private static final AtomicLong EPOCHS = new AtomicLong();
+
+    private final long saved, saving; // States of Animal.checkpointed for this checkpoint
+    private final AnimalRegistry.View animals;
+    private final int food;
+    private final Point foodLocation;
+    private final ConcurrentHashMap<Animal, Memento> copies = new ConcurrentHashMap<>();
+    private final long pauseNanos;
+    private final LongAdder writerCopies = new LongAdder(), writerNanos = new LongAdder();
+    private final AtomicLong maxWriterNanos = new AtomicLong();
+
+    /**
+     * Open a checkpoint.
+     * @param animals (AnimalRegistry) the animals, only those registered now are in the checkpoint.
+     * @param food (Plant) the food now, or null for none.
+     */
+    public Checkpoint(AnimalRegistry animals, Plant food) {
+        long start = System.nanoTime();
+        long epoch = EPOCHS.incrementAndGet();
+        this.saved = epoch * 2;
+        this.saving = saved + 1;
+        this.animals = animals.view();
+        this.food = Snapshot.foodCode(food);
+        this.foodLocation = food == null ? new Point(0, 0) : new Point(food.getLocation().getX(), food.getLocation().getY());
+        this.pauseNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Save an animal as it is now, unless it was saved already, called by a thread about to change it.
+     * If another thread is saving it, wait for that copy, it takes well under a microsecond.
+     * The time spent copying or waiting is counted as writer time.
+     * @param animal (Animal) the animal.
+     */
+    void save(Animal animal) {
+        long state = animal.checkpointed.get();
+        if (state == saved || state > saving) // The common case once finish() went past it
+            return;
+        long start = System.nanoTime();
+        if (save(animal, state) != null)
+            writerCopies.increment();
+        long nanos = System.nanoTime() - start;
+        writerNanos.add(nanos);
+        maxWriterNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Save an animal as it is now, unless it was saved already.
+     * @param animal (Animal) the animal.
+     * @param state (Long) its checkpointed state, as last read.
+     * @return (Memento) the saved memento, or null if it was saved by another call.
+     */
+    private Memento save(Animal animal, long state) {
+        for (;; state = animal.checkpointed.get()) {
+            if (state == saved)
+                return null;
+            if (state == saving)
+                Thread.onSpinWait();
+            else if (state < saved && animal.checkpointed.compareAndSet(state, saving)) {
+                Memento memento = new Memento(animal);
+                copies.put(animal, memento);
+                animal.checkpointed.set(saved);
+                return memento;
+            }
+            else if (state > saving)
+                return null; // A newer checkpoint, this one was given up
+        }
+    }
+
+    /**
+     * Save every animal that did not change since the checkpoint was opened, and build the snapshot.
+     * Called once, off the simulation thread. The checkpoint must stay open in the world until it returns.
+     * @return (Snapshot) the zoo when the checkpoint was opened.
+     */
+    public Snapshot finish() {
+        ArrayList<Memento> mementos = new ArrayList<>(animals.size());
+        animals.forEach((animal, id) -> {
+            Memento memento = save(animal, animal.checkpointed.get());
+            if (memento == null)
+                memento = copies.get(animal);
+            if (memento != null)
+                mementos.add(memento.withId(id));
+        });
+        copies.clear();
+        return new Snapshot(mementos, food, foodLocation);
+    }
+
+    /**
+     * A getter of how long opening the checkpoint took, the only time the opening thread is held.
+     * @return (Long) nanoseconds.
+     */
+    public long getPauseNanos() { return pauseNanos; }
+
+    /**
+     * A getter of the number of animals copied by the threads that changed them, not by finish().
+     * Complete once the checkpoint is closed.
+     * @return (Long) copies count.
+     */
+    public long getWriterCopies() { return writerCopies.sum(); }
+
+    /**
+     * A getter of the time the threads that changed the animals spent copying them, or waiting for their copy.
+     * On the simulation engine, this is time taken from its ticks.
+     * @return (Long) nanoseconds.
+     */
+    public long getWriterNanos() { return writerNanos.sum(); }
+
+    /**
+     * A getter of the longest single copy or wait of a thread that changed an animal.
+     * @return (Long) nanoseconds.
+     */
+    public long getMaxWriterNanos() { return maxWriterNanos.get(); }
+}
@@ -1,12 +1,9 @@
 package animals;
 
 import diet.Herbivore;
-import graphics.IDrawable;
+import graphics.SpriteCache;
 import mobility.Point;
 import utilities.MessageUtility;
-import javax.imageio.ImageIO;
-import java.io.File;
-import java.io.IOException;
 
 /**
  * Giraffe class - Herbivore animal.
@@ -112,15 +109,13 @@ public class Giraffe extends Chew {
 	}
 
 	/**
-	 * A simple function to read/load image file of this animal object.
+	 * A simple function to get the image files of this animal object from the sprite cache.
 	 * @param nm
 	 * 			(String) part-of-string of file name.
 	 */
 	public void loadImages(String nm)
-	{	// Read image file
-		try {
-			img1 = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/grf_" + nm + "_1.png"));
-			img2 = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/grf_" + nm + "_2.png"));
-		} catch (IOException ex) {System.out.println("Cannot load image");}
+	{
+		img1 = SpriteCache.getAnimal("grf", nm, 1);
+		img2 = SpriteCache.getAnimal("grf", nm, 2);
 	}
-}
\ No newline at end of file
+}
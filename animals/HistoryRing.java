@@ -0,0 +1,171 @@
+package animals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Keeps the backup frames in a ring inside one memory-mapped file, off the Java heap.
+ * Frames are written one after the other and wrap around at the end of the file,
+ * a new frame overwrites the oldest ones. The file is at most MAX_CAPACITY bytes, a single mapping.
+ * The oldest frames are moved to a spill store before they are overwritten, so the history is kept whole
+ * and the ring holds its newest part. Without a spill store they are dropped and counted (see getDropped),
+ * and the history is only as deep as the file allows.
+ * Only the offsets of the frames are on the heap, a frame is read as a view of the mapping, without copying it.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Caretaker
+ */
+public class HistoryRing implements BackupStore {
+
+    /**
+     * The largest ring, a mapping is indexed by an int.
+     */
+    public static final int MAX_CAPACITY = Integer.MAX_VALUE;
+
+    private static final class Frame {
+        final int offset, length;
+        final boolean full;
+
+        Frame(int offset, int length, boolean full) {
+            this.offset = offset;
+            this.length = length;
+            this.full = full;
+        }
+
+        boolean overlaps(int from, int to) { return offset < to && from < offset + length; }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int capacity;
+    private final ArrayList<Frame> frames = new ArrayList<>(); // Oldest first, after those of the spill store
+    private final BackupStore spill; // The frames older than the ring, or null to drop them
+    private int end = 0; // Where the next frame goes, unless it wraps
+    private long dropped = 0, spilled = 0;
+
+    /**
+     * A ctor of history ring that drops the frames it overwrites.
+     * @param file (Path) the file of the ring, or null for a temporary one. It is deleted on exit.
+     * @param capacity (Integer) size of the file in bytes.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    public HistoryRing(Path file, int capacity) throws IOException { this(file, capacity, null); }
+
+    /**
+     * A ctor of history ring.
+     * @param file (Path) the file of the ring, or null for a temporary one. It is deleted on exit.
+     * @param capacity (Integer) size of the file in bytes.
+     * @param spill (BackupStore) where the frames go before they are overwritten, e.g. a BackupDirectory,
+     * or null to drop them.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    public HistoryRing(Path file, int capacity, BackupStore spill) throws IOException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+        if (file == null)
+            file = Files.createTempFile("zoo-history", ".ring");
+        file.toFile().deleteOnExit();
+        this.capacity = capacity;
+        this.spill = spill;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    @Override
+    public synchronized boolean add(ByteBuffer frame, boolean full) throws IOException {
+        int length = frame.remaining();
+        if (length > capacity)
+            throw new IOException("A backup of " + length + " bytes does not fit a history of " + capacity + " bytes");
+        int offset = end + length <= capacity ? end : 0;
+        int drop = 0;
+        if (offset == 0 && end != 0) // Wraps, the frames after the newest one are the oldest
+            while (drop < frames.size() && frames.get(drop).offset >= end)
+                drop++;
+        while (drop < frames.size() && frames.get(drop).overlaps(offset, offset + length))
+            drop++;
+        while (drop < frames.size() && !frames.get(drop).full) // A delta without its full snapshot is useless
+            drop++;
+        if (!full && drop == frames.size())
+            return false;
+        if (spill != null)
+            for (int i = 0; i < drop; i++, spilled++) { // Oldest first, before they are overwritten
+                Frame old = frames.get(i);
+                spill.add(map.slice(old.offset, old.length), old.full);
+            }
+        else dropped += drop;
+        frames.subList(0, drop).clear();
+        map.put(offset, frame, frame.position(), length);
+        frames.add(new Frame(offset, length, full));
+        end = offset + length;
+        return true;
+    }
+
+    @Override
+    public synchronized ByteBuffer get(int index) throws IOException {
+        int spilt = spilt();
+        if (index < spilt)
+            return spill.get(index);
+        Frame frame = frames.get(index - spilt);
+        return map.slice(frame.offset, frame.length).asReadOnlyBuffer();
+    }
+
+    @Override
+    public synchronized boolean isFull(int index) {
+        int spilt = spilt();
+        return index < spilt ? spill.isFull(index) : frames.get(index - spilt).full;
+    }
+
+    @Override
+    public synchronized void removeLast() throws IOException {
+        if (frames.isEmpty()) { // Only older frames are left
+            spill.removeLast();
+            return;
+        }
+        frames.remove(frames.size() - 1);
+        if (frames.isEmpty())
+            end = 0;
+        else {
+            Frame newest = frames.get(frames.size() - 1);
+            end = newest.offset + newest.length;
+        }
+    }
+
+    @Override
+    public synchronized int size() { return spilt() + frames.size(); }
+
+    private int spilt() { return spill == null ? 0 : spill.size(); }
+
+    /**
+     * A getter of the number of frames overwritten by newer ones and lost, always 0 with a spill store.
+     * @return (Long) dropped frames count.
+     */
+    public synchronized long getDropped() { return dropped; }
+
+    /**
+     * A getter of the number of frames moved to the spill store.
+     * @return (Long) spilled frames count.
+     */
+    public synchronized long getSpilled() { return spilled; }
+
+    /**
+     * A getter of the size of the ring.
+     * @return (Integer) capacity in bytes.
+     */
+    public int getCapacity() { return capacity; }
+
+    @Override
+    public synchronized void close() throws IOException {
+        frames.clear();
+        channel.close();
+        if (spill != null)
+            spill.close();
+    }
+}
@@ -1,12 +1,9 @@
 package animals;
 
 import diet.Carnivore;
-import graphics.IDrawable;
+import graphics.SpriteCache;
 import mobility.Point;
 import utilities.MessageUtility;
-import javax.imageio.ImageIO;
-import java.io.File;
-import java.io.IOException;
 
 /**
  * Lion class - Carnivore animal.
@@ -119,15 +116,13 @@ public class Lion extends Roar {
 	}
 
 	/**
-	 * A simple function to read/load image file of this animal object.
+	 * A simple function to get the image files of this animal object from the sprite cache.
 	 * @param nm
 	 * 			(String) part-of-string of file name.
 	 */
 	public void loadImages(String nm)
-	{	// Read image file
-		try {
-			img1 = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/lio_" + nm + "_1.png"));
-			img2 = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/lio_" + nm + "_2.png"));
-		} catch (IOException ex) {System.out.println("Cannot load image");}
+	{
+		img1 = SpriteCache.getAnimal("lio", nm, 1);
+		img2 = SpriteCache.getAnimal("lio", nm, 2);
 	}
-}
\ No newline at end of file
+}
@@ -1,34 +1,92 @@
 package animals;
 
 import mobility.Point;
-import plants.Plant;
-
-import java.awt.image.BufferedImage;
 
+/**
+ * The state of one animal at a backup.
+ * A memento is a copy, it holds no reference to the animal and nothing in it changes,
+ * the animal is found again by its registry id (see Snapshot).
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Caretaker
+ */
 public class Memento {
 
-    private double weight;
-    private String col;
-    private int eatCount, size, horSpeed, verSpeed, x_dir, y_dir;
-    private Point location;
-    private Animal animal;
-//    private Plant food;
+    private final int id;
+    private final String species;
+    private final double weight;
+    private final String col;
+    private final int eatCount, size, horSpeed, verSpeed, x_dir, y_dir;
+    private final Point location;
+
+    /**
+     * A ctor of memento of an animal that is not registered.
+     * @param other (Animal) the animal.
+     */
+    public Memento(Animal other) { this(other, -1); }
 
-    public Memento(Animal other)
+    /**
+     * A ctor of memento of a registered animal.
+     * @param other (Animal) the animal.
+     * @param id (Integer) registry id of the animal, -1 if none.
+     */
+    public Memento(Animal other, int id)
     {
-        this.animal = other;
-        this.size = other.getSize();
-        this.weight = other.getWeight();
-        this.horSpeed = other.getHorSpeed();
-        this.verSpeed = other.getVerSpeed();
-        this.col = other.getColorToFile(other.getColorToString()); // col = nm
-        this.x_dir = other.getX_dir();
-        this.y_dir = other.getY_dir();
-        this.location = other.getLocation();
-        this.eatCount = other.getEatCount();
-    }
-
-    public Animal getAnimal() { return this.animal; }
+        this(id, other.getClass().getSimpleName(), other.getColorToString(), other.getSize(), other.getWeight(),
+                other.getHorSpeed(), other.getVerSpeed(), other.getX_dir(), other.getY_dir(),
+                new Point(other.getLocation().getX(), other.getLocation().getY()), // A copy, the animal's point moves
+                other.getEatCount());
+    }
+
+    Memento(int id, String species, String col, int size, double weight, int horSpeed, int verSpeed,
+            int x_dir, int y_dir, Point location, int eatCount)
+    {
+        this.id = id;
+        this.species = species;
+        this.col = col;
+        this.size = size;
+        this.weight = weight;
+        this.horSpeed = horSpeed;
+        this.verSpeed = verSpeed;
+        this.x_dir = x_dir;
+        this.y_dir = y_dir;
+        this.location = location;
+        this.eatCount = eatCount;
+    }
+
+    /**
+     * The same memento under another registry id.
+     * @param id (Integer) the id.
+     * @return (Memento) this memento if the id is the same, otherwise a copy.
+     */
+    Memento withId(int id) {
+        return id == this.id ? this : new Memento(id, species, col, size, weight, horSpeed, verSpeed,
+                x_dir, y_dir, location, eatCount);
+    }
+
+    /**
+     * Build a new animal in the state of this memento, for an animal that is gone since the backup.
+     * @return (Animal) the animal, not registered.
+     */
+    public Animal newAnimal() {
+        Animal animal = switch (species) {
+            case "Lion" -> new Lion(size, horSpeed, verSpeed, col, weight);
+            case "Bear" -> new Bear(size, horSpeed, verSpeed, col, weight);
+            case "Elephant" -> new Elephant(size, horSpeed, verSpeed, col, weight);
+            case "Giraffe" -> new Giraffe(size, horSpeed, verSpeed, col, weight);
+            default -> new Turtle(size, horSpeed, verSpeed, col, weight);
+        };
+        animal.setMemento(this);
+        return animal;
+    }
+
+    public int getId() {
+        return id;
+    }
+    public String getSpecies() {
+        return species;
+    }
     public int getSize() {
         return size;
     }
@@ -57,4 +115,3 @@ public class Memento {
         return eatCount;
     }
 }
-
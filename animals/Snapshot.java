@@ -0,0 +1,235 @@
+package animals;
+
+import mobility.Point;
+import plants.Cabbage;
+import plants.Lettuce;
+import plants.Meat;
+import plants.Plant;
+import utilities.Catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A backup of a whole zoo: a memento of every animal and the food.
+ * It is kept on disk in a compact binary format, a versioned header and then one fixed-width record per animal:
+ * <pre>
+ * header: magic int, version byte, record size byte, animals int, food byte, food x int, food y int
+ * record: id int, species byte, color byte, size short, hor. speed byte, ver. speed byte,
+ *         x dir byte, y dir byte, weight double, x int, y int, eat count int
+ * </pre>
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Caretaker
+ */
+public class Snapshot {
+
+    /**
+     * First bytes of a snapshot, "ZOOS".
+     */
+    public static final int MAGIC = 0x5A4F4F53;
+    public static final byte VERSION = 1;
+    static final int HEADER_BYTES = 19;
+    static final int RECORD_BYTES = 32;
+
+    private final List<Memento> mementos;
+    final int food;
+    final Point foodLocation;
+
+    /**
+     * A ctor of snapshot.
+     * @param mementos (List) a memento of every animal.
+     * @param food (Plant) Cabbage, Lettuce, or Meat object, or null for none.
+     */
+    public Snapshot(List<Memento> mementos, Plant food) {
+        this(mementos, foodCode(food),
+                food == null ? new Point(0, 0) : new Point(food.getLocation().getX(), food.getLocation().getY()));
+    }
+
+    Snapshot(List<Memento> mementos, int food, Point foodLocation) {
+        this.mementos = Collections.unmodifiableList(mementos);
+        this.food = food;
+        this.foodLocation = foodLocation;
+    }
+
+    /**
+     * Take a snapshot of the registered animals.
+     * @param animals (AnimalRegistry) the animals.
+     * @param food (Plant) the food, or null for none.
+     * @return (Snapshot) the snapshot.
+     */
+    public static Snapshot capture(AnimalRegistry animals, Plant food) {
+        List<Animal> snap = animals.snapshot();
+        ArrayList<Memento> mementos = new ArrayList<>(snap.size());
+        for (Animal animal : snap)
+            mementos.add(new Memento(animal, animals.getId(animal)));
+        return new Snapshot(mementos, food);
+    }
+
+    /**
+     * A getter of the mementos.
+     * @return (List) a memento of every animal, unmodifiable.
+     */
+    public List<Memento> getMementos() { return mementos; }
+
+    /**
+     * A getter of the food at the snapshot.
+     * The food is a singleton, it is moved back to where it was.
+     * @return (Plant) Cabbage, Lettuce, or Meat object, or null for none.
+     */
+    public Plant getFood() {
+        Plant plant = food == 0 ? null : switch (Catalog.FOODS[food - 1]) {
+            case "Lettuce" -> Lettuce.getInstance();
+            case "Cabbage" -> Cabbage.getInstance();
+            case "Meat" -> Meat.getInstance();
+            default -> null;
+        };
+        if (plant != null) {
+            plant.setLocation(new Point(foodLocation.getX(), foodLocation.getY()));
+            plant.loadImages(Catalog.FOODS[food - 1]);
+        }
+        return plant;
+    }
+
+    /**
+     * A getter of the size of this snapshot in the binary format.
+     * @return (Integer) number of bytes.
+     */
+    public int getBytes() { return HEADER_BYTES + mementos.size() * RECORD_BYTES; }
+
+    /**
+     * Encode this snapshot.
+     * @param buf (ByteBuffer) where it is written, from its position, with at least getBytes() remaining.
+     */
+    public void writeTo(ByteBuffer buf) {
+        buf.putInt(MAGIC);
+        buf.put(VERSION);
+        buf.put((byte) RECORD_BYTES);
+        buf.putInt(mementos.size());
+        buf.put((byte) food);
+        buf.putInt(foodLocation.getX());
+        buf.putInt(foodLocation.getY());
+        for (Memento memento : mementos)
+            writeRecord(buf, memento);
+    }
+
+    static void writeRecord(ByteBuffer buf, Memento memento) {
+        buf.putInt(memento.getId());
+        buf.put((byte) indexOf(Catalog.SPECIES, memento.getSpecies()));
+        buf.put((byte) indexOf(Catalog.COLORS, memento.getColor()));
+        buf.putShort((short) memento.getSize());
+        buf.put((byte) memento.getHorSpeed());
+        buf.put((byte) memento.getVerSpeed());
+        buf.put((byte) memento.getX_dir());
+        buf.put((byte) memento.getY_dir());
+        buf.putDouble(memento.getWeight());
+        buf.putInt(memento.getLocation().getX());
+        buf.putInt(memento.getLocation().getY());
+        buf.putInt(memento.getEatCount());
+    }
+
+    /**
+     * Decode a snapshot.
+     * @param buf (ByteBuffer) the snapshot, from its position.
+     * @return (Snapshot) the snapshot.
+     * @throws IOException if the bytes are not a valid snapshot.
+     */
+    public static Snapshot readFrom(ByteBuffer buf) throws IOException {
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC)
+            throw new IOException("Not a zoo snapshot");
+        if (buf.get() != VERSION)
+            throw new IOException("Unknown zoo snapshot version");
+        int recordBytes = buf.get(), count = buf.getInt(), food = buf.get();
+        Point foodLocation = new Point(buf.getInt(), buf.getInt());
+        if (recordBytes < RECORD_BYTES || count < 0 || food < 0 || food > Catalog.FOODS.length
+                || buf.remaining() < (long) count * recordBytes)
+            throw new IOException("The zoo snapshot is corrupt");
+        ArrayList<Memento> mementos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = buf.position();
+            mementos.add(readRecord(buf));
+            buf.position(start + recordBytes);
+        }
+        return new Snapshot(mementos, food, foodLocation);
+    }
+
+    static Memento readRecord(ByteBuffer buf) throws IOException {
+        int id = buf.getInt(), species = buf.get(), color = buf.get(), size = buf.getShort();
+        int horSpeed = buf.get(), verSpeed = buf.get(), xDir = buf.get(), yDir = buf.get();
+        double weight = buf.getDouble();
+        Point location = new Point(buf.getInt(), buf.getInt());
+        int eatCount = buf.getInt();
+        if (species < 0 || species >= Catalog.SPECIES.length || color < 0 || color >= Catalog.COLORS.length)
+            throw new IOException("The zoo snapshot is corrupt");
+        return new Memento(id, Catalog.SPECIES[species], Catalog.COLORS[color], size, weight,
+                horSpeed, verSpeed, xDir, yDir, location, eatCount);
+    }
+
+    /**
+     * Write this snapshot to a file.
+     * It is written beside the file and then moved over it, so the file is never half written.
+     * @param file (Path) the file.
+     * @throws IOException if it cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(getBytes());
+        writeTo(buf);
+        buf.flip();
+        writeFile(file, buf);
+    }
+
+    /**
+     * Read a snapshot from a file.
+     * @param file (Path) the file.
+     * @return (Snapshot) the snapshot.
+     * @throws IOException if it cannot be read or is not a valid snapshot.
+     */
+    public static Snapshot read(Path file) throws IOException { return readFrom(readFile(file)); }
+
+    static void writeFile(Path file, ByteBuffer buf) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining())
+                channel.write(buf);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static ByteBuffer readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("The zoo snapshot is too big");
+            ByteBuffer buf = ByteBuffer.allocate((int) channel.size());
+            while (buf.hasRemaining())
+                if (channel.read(buf) < 0)
+                    throw new IOException("The zoo snapshot is cut");
+            return buf.flip();
+        }
+    }
+
+    static int indexOf(String[] names, String name) {
+        int index = Catalog.indexOf(names, name);
+        if (index < 0)
+            throw new IllegalArgumentException("Cannot back up " + name);
+        return index;
+    }
+
+    /**
+     * The code of a food in the binary format.
+     * @param food (Plant) the food, or null for none.
+     * @return (Integer) 0 for none, otherwise its index in Catalog.FOODS plus one.
+     */
+    static int foodCode(Plant food) {
+        return food == null ? 0 : indexOf(Catalog.FOODS, food.getClass().getSimpleName()) + 1;
+    }
+}
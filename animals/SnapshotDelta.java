@@ -0,0 +1,238 @@
+package animals;
+
+import mobility.Point;
+import utilities.Catalog;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The changes between two snapshots of a zoo, only what changed is written:
+ * <pre>
+ * header: magic int, version byte, food byte, food x int, food y int, records int
+ * record: id int, mask byte, then the fields of the mask in this order:
+ *         weight double, x int, y int, eat count int, color byte, x dir byte, y dir byte,
+ *         size short, hor. speed byte, ver. speed byte
+ * </pre>
+ * A mask of 0 is an animal that is gone, a mask of ADDED is followed by a whole Snapshot record.
+ * Deltas only work on snapshots where every animal has its own registry id.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Caretaker
+ */
+public class SnapshotDelta {
+
+    /**
+     * First bytes of a delta, "ZOOD".
+     */
+    public static final int MAGIC = 0x5A4F4F44;
+    public static final byte VERSION = 1;
+    static final int HEADER_BYTES = 18;
+    static final int WEIGHT = 1, LOCATION = 2, EAT_COUNT = 4, COLOR = 8, DIRECTION = 16, SIZE = 32, SPEED = 64,
+            ADDED = 0x80;
+
+    private SnapshotDelta() {}
+
+    /**
+     * Check if a snapshot can be the base or the target of a delta.
+     * @param snapshot (Snapshot) the snapshot.
+     * @return True if all its animals have distinct registry ids, otherwise false.
+     */
+    public static boolean isSupported(Snapshot snapshot) {
+        HashSet<Integer> seen = new HashSet<>();
+        for (Memento memento : snapshot.getMementos())
+            if (memento.getId() < 0 || !seen.add(memento.getId()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Encode the changes from one snapshot to the next.
+     * @param from (Snapshot) the previous snapshot.
+     * @param to (Snapshot) the next snapshot.
+     * @return (ByteBuffer) the delta, ready to be read or written.
+     */
+    public static ByteBuffer encode(Snapshot from, Snapshot to) {
+        HashMap<Integer, Memento> before = new HashMap<>(from.getMementos().size() * 2);
+        for (Memento memento : from.getMementos())
+            before.put(memento.getId(), memento);
+        ByteBuffer body = ByteBuffer.allocate(64);
+        int records = 0;
+        for (Memento memento : to.getMementos()) {
+            Memento old = before.remove(memento.getId());
+            int mask = old == null ? ADDED : changes(old, memento);
+            if (mask == 0)
+                continue;
+            if (body.remaining() < Snapshot.RECORD_BYTES + 5)
+                body = grow(body);
+            body.putInt(memento.getId());
+            body.put((byte) mask);
+            if (mask == ADDED)
+                Snapshot.writeRecord(body, memento);
+            else writeFields(body, mask, memento);
+            records++;
+        }
+        for (Memento gone : before.values()) {
+            if (body.remaining() < 5)
+                body = grow(body);
+            body.putInt(gone.getId());
+            body.put((byte) 0);
+            records++;
+        }
+        body.flip();
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + body.remaining());
+        buf.putInt(MAGIC);
+        buf.put(VERSION);
+        buf.put((byte) to.food);
+        buf.putInt(to.foodLocation.getX());
+        buf.putInt(to.foodLocation.getY());
+        buf.putInt(records);
+        buf.put(body);
+        return buf.flip();
+    }
+
+    /**
+     * Apply a delta to the snapshot it was encoded from.
+     * @param base (Snapshot) the previous snapshot.
+     * @param buf (ByteBuffer) the delta, from its position.
+     * @return (Snapshot) the next snapshot.
+     * @throws IOException if the bytes are not a valid delta, or are cut before its last record.
+     */
+    public static Snapshot apply(Snapshot base, ByteBuffer buf) throws IOException {
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC)
+            throw new IOException("Not a zoo snapshot delta");
+        if (buf.get() != VERSION)
+            throw new IOException("Unknown zoo snapshot delta version");
+        int food = buf.get();
+        Point foodLocation = new Point(buf.getInt(), buf.getInt());
+        int records = buf.getInt();
+        if (food < 0 || food > Catalog.FOODS.length || records < 0)
+            throw new IOException("The zoo snapshot delta is corrupt");
+        LinkedHashMap<Integer, Memento> animals = new LinkedHashMap<>(base.getMementos().size() * 2);
+        for (Memento memento : base.getMementos())
+            animals.put(memento.getId(), memento);
+        try { // The records have different sizes, a cut one shows only while it is read
+            for (int i = 0; i < records; i++) {
+                int id = buf.getInt(), mask = buf.get() & 0xFF;
+                if (mask == 0)
+                    animals.remove(id);
+                else if (mask == ADDED)
+                    animals.put(id, Snapshot.readRecord(buf));
+                else {
+                    Memento old = animals.get(id);
+                    if (old == null)
+                        throw new IOException("The zoo snapshot delta changes a missing animal " + id);
+                    animals.put(id, readFields(buf, mask, old));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The zoo snapshot delta is truncated", e);
+        }
+        return new Snapshot(new ArrayList<>(animals.values()), food, foodLocation);
+    }
+
+    /**
+     * Apply deltas one after the other.
+     * @param base (Snapshot) the snapshot of the first delta.
+     * @param deltas (List) the deltas, in order.
+     * @return (Snapshot) the snapshot of the last delta.
+     * @throws IOException if a delta is not valid.
+     */
+    public static Snapshot apply(Snapshot base, List<ByteBuffer> deltas) throws IOException {
+        for (ByteBuffer delta : deltas)
+            base = apply(base, delta);
+        return base;
+    }
+
+    private static int changes(Memento old, Memento now) {
+        int mask = 0;
+        if (Double.doubleToLongBits(old.getWeight()) != Double.doubleToLongBits(now.getWeight()))
+            mask |= WEIGHT;
+        if (old.getLocation().getX() != now.getLocation().getX() || old.getLocation().getY() != now.getLocation().getY())
+            mask |= LOCATION;
+        if (old.getEatCount() != now.getEatCount())
+            mask |= EAT_COUNT;
+        if (!old.getColor().equals(now.getColor()))
+            mask |= COLOR;
+        if (old.getX_dir() != now.getX_dir() || old.getY_dir() != now.getY_dir())
+            mask |= DIRECTION;
+        if (old.getSize() != now.getSize())
+            mask |= SIZE;
+        if (old.getHorSpeed() != now.getHorSpeed() || old.getVerSpeed() != now.getVerSpeed())
+            mask |= SPEED;
+        if (!old.getSpecies().equals(now.getSpecies()))
+            mask = ADDED; // Another animal under the same id, written whole
+        return mask;
+    }
+
+    private static void writeFields(ByteBuffer buf, int mask, Memento memento) {
+        if ((mask & WEIGHT) != 0)
+            buf.putDouble(memento.getWeight());
+        if ((mask & LOCATION) != 0) {
+            buf.putInt(memento.getLocation().getX());
+            buf.putInt(memento.getLocation().getY());
+        }
+        if ((mask & EAT_COUNT) != 0)
+            buf.putInt(memento.getEatCount());
+        if ((mask & COLOR) != 0)
+            buf.put((byte) Snapshot.indexOf(Catalog.COLORS, memento.getColor()));
+        if ((mask & DIRECTION) != 0) {
+            buf.put((byte) memento.getX_dir());
+            buf.put((byte) memento.getY_dir());
+        }
+        if ((mask & SIZE) != 0)
+            buf.putShort((short) memento.getSize());
+        if ((mask & SPEED) != 0) {
+            buf.put((byte) memento.getHorSpeed());
+            buf.put((byte) memento.getVerSpeed());
+        }
+    }
+
+    private static Memento readFields(ByteBuffer buf, int mask, Memento old) throws IOException {
+        double weight = (mask & WEIGHT) != 0 ? buf.getDouble() : old.getWeight();
+        Point location = (mask & LOCATION) != 0 ? new Point(buf.getInt(), buf.getInt()) : old.getLocation();
+        int eatCount = (mask & EAT_COUNT) != 0 ? buf.getInt() : old.getEatCount();
+        String col = old.getColor();
+        if ((mask & COLOR) != 0) {
+            int color = buf.get();
+            if (color < 0 || color >= Catalog.COLORS.length)
+                throw new IOException("The zoo snapshot delta is corrupt");
+            col = Catalog.COLORS[color];
+        }
+        int xDir = old.getX_dir(), yDir = old.getY_dir();
+        if ((mask & DIRECTION) != 0) {
+            xDir = buf.get();
+            yDir = buf.get();
+        }
+        int size = (mask & SIZE) != 0 ? buf.getShort() : old.getSize();
+        int horSpeed = old.getHorSpeed(), verSpeed = old.getVerSpeed();
+        if ((mask & SPEED) != 0) {
+            horSpeed = buf.get();
+            verSpeed = buf.get();
+        }
+        return new Memento(old.getId(), old.getSpecies(), col, size, weight, horSpeed, verSpeed,
+                xDir, yDir, location, eatCount);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buf) {
+        ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+        buf.flip();
+        return bigger.put(buf);
+    }
+
+    /**
+     * Check the bytes of a file, a full snapshot or a delta.
+     * @param buf (ByteBuffer) the bytes, the position is not changed.
+     * @return True if they are a delta, otherwise false.
+     */
+    static boolean isDelta(ByteBuffer buf) {
+        return buf.remaining() >= 4 && buf.getInt(buf.position()) == MAGIC;
+    }
+}
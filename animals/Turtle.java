@@ -1,12 +1,9 @@
 package animals;
 
 import diet.Herbivore;
-import graphics.IDrawable;
+import graphics.SpriteCache;
 import mobility.Point;
 import utilities.MessageUtility;
-import javax.imageio.ImageIO;
-import java.io.File;
-import java.io.IOException;
 
 /**
  * Turtle class - Herbivore animal.
@@ -105,15 +102,13 @@ public class Turtle extends Chew {
 	}
 
 	/**
-	 * A simple function to read/load image file of this animal object.
+	 * A simple function to get the image files of this animal object from the sprite cache.
 	 * @param nm
 	 * 			(String) part-of-string of file name.
 	 */
 	public void loadImages(String nm)
-	{	// Read image file
-		try {
-			img1 = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/trt_" + nm + "_1.png"));
-			img2 = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/trt_" + nm + "_2.png"));
-		} catch (IOException ex) {System.out.println("Cannot load image");}
+	{
+		img1 = SpriteCache.getAnimal("trt", nm, 1);
+		img2 = SpriteCache.getAnimal("trt", nm, 2);
 	}
 }
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import animals.AnimalStore;
+import animals.Bear;
+import animals.Elephant;
+import animals.Lion;
+import graphics.SpriteCache;
+import graphics.ZooPanel;
+import utilities.MessageUtility;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A benchmark of the animal movement step.
+ * Reports the time and the bytes allocated per tick, for the Animal objects
+ * and for the AnimalStore columns. In the steady state both should allocate nothing.
+ * Run with: java -Djava.awt.headless=true benchmarks.MovementBenchmark
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Animal#update(double)
+ */
+public class MovementBenchmark {
+
+    private static final int ANIMALS = 10000;
+    private static final int WARMUP_TICKS = 2000, TICKS = 2000;
+    private static final double DT = Animal.SPEED / 1000.0;
+
+    public static void main(String[] args) {
+        MessageUtility.setLevel(MessageUtility.Level.OFF); // Animals log every setter
+        AnimalRegistry registry = new AnimalRegistry();
+        ZooPanel pan = ZooPanel.getInstance(registry);
+        pan.setSize(800, 600);
+        Animal[] animals = new Animal[ANIMALS];
+        for (int i = 0; i < ANIMALS; i++) {
+            animals[i] = switch (i % 3) {
+                case 0 -> new Lion(50 + i % 250, 1 + i % 10, 1 + i % 7, "Natural", 100);
+                case 1 -> new Bear(50 + i % 250, 1 + i % 10, 1 + i % 7, "Natural", 100);
+                default -> new Elephant(50 + i % 250, 1 + i % 10, 1 + i % 7, "Natural", 100);
+            };
+            animals[i].setPan(pan);
+        }
+        System.out.println(ANIMALS + " animals created with " + SpriteCache.getDiskReads() + " image reads");
+
+        measure("Animal.update", () -> {
+            for (Animal animal : animals)
+                animal.update(DT);
+        });
+        AnimalStore store = new AnimalStore(ANIMALS);
+        for (Animal animal : animals)
+            animal.bindTo(store);
+        measure("AnimalStore.update", () -> store.update(DT, Animal.SPEED, pan.getWidth(), pan.getHeight(), 0, 0, null));
+    }
+
+    private static void measure(String name, Runnable tick) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_TICKS; i++)
+            tick.run();
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++)
+            tick.run();
+        long time = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+        System.out.printf("%s: %d animals, %.1f us/tick, %.1f bytes/tick%n",
+                name, ANIMALS, time / 1e3 / TICKS, (double) bytes / TICKS);
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import animals.Bear;
+import animals.Elephant;
+import animals.Giraffe;
+import animals.Lion;
+import animals.Turtle;
+import graphics.SpriteAtlas;
+import graphics.SpriteCache;
+import graphics.ZooPanel;
+import mobility.Point;
+import utilities.MessageUtility;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * A benchmark of painting the zoo panel.
+ * Paints the panel with the background and 2000 animals of random sizes over the whole range an animal may have
+ * into an offscreen image, and reports the time per frame, for a full repaint and for the dirty region of one moved animal.
+ * Run with: java -Djava.awt.headless=true benchmarks.PaintBenchmark
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see ZooPanel#paintComponent(Graphics)
+ */
+public class PaintBenchmark {
+
+    private static final int ANIMALS = 2000;
+    private static final int MIN_SIZE = 50, MAX_SIZE = 300;
+    private static final int WARMUP_FRAMES = 50, FRAMES = 200;
+    private static final String[] COLORS = {"Natural", "Blue", "Red"};
+
+    public static void main(String[] args) {
+        MessageUtility.setLevel(MessageUtility.Level.OFF); // Animals log every setter
+        AnimalRegistry registry = new AnimalRegistry();
+        ZooPanel pan = ZooPanel.getInstance(registry);
+        pan.setSize(1300, 580);
+        pan.setBackgroundImage(SpriteCache.get("savanna.jpg"));
+        Random rand = new Random(ANIMALS);
+        for (int i = 0; i < ANIMALS; i++) {
+            int size = MIN_SIZE + rand.nextInt(MAX_SIZE - MIN_SIZE + 1);
+            String color = COLORS[i % COLORS.length];
+            Animal animal = switch (i % 5) {
+                case 0 -> new Lion(size, 1, 1, color, 100);
+                case 1 -> new Bear(size, 1, 1, color, 100);
+                case 2 -> new Elephant(size, 1, 1, color, 100);
+                case 3 -> new Giraffe(size, 1, 1, color, 100);
+                default -> new Turtle(size, 1, 1, color, 100);
+            };
+            animal.setPan(pan);
+            animal.setLocation(new Point((i * 37) % 1300, (i * 53) % 580));
+            registry.add(animal);
+        }
+        pan.getWorld().publish(); // The panel draws the render snapshot
+
+        BufferedImage frame = new BufferedImage(pan.getWidth(), pan.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < WARMUP_FRAMES; i++)
+            paint(pan, frame);
+        long misses = SpriteAtlas.getMisses();
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++)
+            paint(pan, frame);
+        long time = System.nanoTime() - start;
+        System.out.printf("%d animals: %.2f ms/frame, %d scaled sprites in the atlas, %d scaled while painting%n",
+                ANIMALS, time / 1e6 / FRAMES, SpriteAtlas.size(), SpriteAtlas.getMisses() - misses);
+
+        Rectangle dirty = registry.get(0).getBounds();
+        dirty.grow(5, 5); // One animal moved a few pixels
+        for (int i = 0; i < WARMUP_FRAMES; i++)
+            paint(pan, frame, dirty);
+        start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++)
+            paint(pan, frame, dirty);
+        time = System.nanoTime() - start;
+        System.out.printf("%d animals, dirty region %dx%d: %.3f ms/frame%n",
+                ANIMALS, dirty.width, dirty.height, time / 1e6 / FRAMES);
+    }
+
+    private static void paint(ZooPanel pan, BufferedImage frame) {
+        paint(pan, frame, null);
+    }
+
+    private static void paint(ZooPanel pan, BufferedImage frame, Rectangle clip) {
+        Graphics g = frame.createGraphics();
+        if (clip != null)
+            g.setClip(clip);
+        pan.paint(g);
+        g.dispose();
+    }
+}
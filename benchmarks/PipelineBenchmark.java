@@ -0,0 +1,107 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import graphics.SpriteCache;
+import graphics.ZooPanel;
+import utilities.MessageUtility;
+import zoo.BatchSimulation;
+import zoo.SimulationEngine;
+import zoo.World;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A benchmark of simulating and drawing the zoo one after the other, then at the same time.
+ * Sequentially every frame costs a tick plus a paint. Pipelined, the simulation thread ticks and publishes
+ * while a render thread paints the newest published snapshot, so the ticks run at the rate of the slower side.
+ * Run with: java -Djava.awt.headless=true benchmarks.PipelineBenchmark [animals] [ticks]
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see zoo.TripleBuffer
+ */
+public class PipelineBenchmark {
+
+    private static final long SEED = 42;
+    private static final int WIDTH = 1300, HEIGHT = 580;
+
+    public static void main(String[] args) throws InterruptedException {
+        int animals = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        MessageUtility.setLevel(MessageUtility.Level.OFF); // Animals log every setter
+        AnimalRegistry registry = new AnimalRegistry();
+        ZooPanel pan = ZooPanel.getInstance(registry);
+        pan.setSize(WIDTH, HEIGHT);
+        pan.setBackgroundImage(SpriteCache.get("savanna.jpg"));
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        SimulationEngine engine = populate(pan, registry, animals);
+        BatchSimulation.run(engine, ticks); // Warm up
+        for (int i = 0; i < 20; i++)
+            paint(pan, frame);
+
+        engine = populate(pan, registry, animals);
+        long start = System.nanoTime();
+        BatchSimulation.run(engine, ticks);
+        double simulate = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ticks; i++)
+            paint(pan, frame);
+        double render = (System.nanoTime() - start) / 1e9;
+
+        engine = populate(pan, registry, animals);
+        double dt = 1.0 / engine.getHz();
+        start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) { // Each frame waits for its tick, then for its paint
+            engine.tick(dt);
+            paint(pan, frame);
+        }
+        double sequential = (System.nanoTime() - start) / 1e9;
+
+        engine = populate(pan, registry, animals);
+        World world = pan.getWorld();
+        long skipped = world.getFrames().getSkipped();
+        long[] painted = {0};
+        Thread renderer = new Thread(() -> { // Paints the newest snapshot while the next ticks run
+            BufferedImage page = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            while (!Thread.currentThread().isInterrupted()) {
+                paint(pan, page);
+                painted[0]++;
+            }
+        }, "PipelineRenderer");
+        start = System.nanoTime();
+        renderer.start();
+        BatchSimulation.run(engine, ticks);
+        renderer.interrupt();
+        renderer.join();
+        double pipelined = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d animals, %d ticks on %d cores%n", animals, ticks, Runtime.getRuntime().availableProcessors());
+        System.out.printf("simulate alone: %.1f ticks/s, render alone: %.1f frames/s%n", ticks / simulate, ticks / render);
+        System.out.printf("sequential: %.1f frames/s%n", ticks / sequential);
+        System.out.printf("pipelined: %.1f ticks/s, %.1f frames/s, %d snapshots skipped%n",
+                ticks / pipelined, painted[0] / pipelined, world.getFrames().getSkipped() - skipped);
+    }
+
+    /**
+     * Start again with the same animals, so every run simulates the same zoo.
+     */
+    private static SimulationEngine populate(ZooPanel pan, AnimalRegistry registry, int animals) {
+        registry.clear();
+        BatchSimulation.populate(pan.getWorld(), animals, SEED);
+        SimulationEngine engine = new SimulationEngine(pan.getWorld());
+        for (Animal animal : registry)
+            engine.add(animal);
+        pan.getWorld().publish();
+        return engine;
+    }
+
+    private static void paint(ZooPanel pan, BufferedImage frame) {
+        Graphics g = frame.createGraphics();
+        pan.paint(g);
+        g.dispose();
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import mobility.Point;
+import mobility.SpatialGrid;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * A benchmark of the predator/prey neighbour search.
+ * Compares the full pair scan that manageZoo used to do
+ * with the SpatialGrid query, at growing populations.
+ * The panel grows with the population so the density stays the same as
+ * 100 animals on an 800x600 panel, otherwise every animal is in range of every other.
+ * Run with: java benchmarks.SpatialGridBenchmark
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see SpatialGrid
+ */
+public class SpatialGridBenchmark {
+
+    private static final int[] POPULATIONS = {100, 1000, 10000};
+    private static final int MIN_SIZE = 50, MAX_SIZE = 300;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.out.println("animals\tnaive ms\tgrid ms\tgrid ns/animal\tpairs");
+        for (int n : POPULATIONS) {
+            Random rand = new Random(n);
+            double scale = Math.sqrt(n / 100.0);
+            int width = (int) (800 * scale), height = (int) (600 * scale);
+            Point[] points = new Point[n];
+            int[] sizes = new int[n];
+            for (int i = 0; i < n; i++) {
+                points[i] = new Point(rand.nextInt(width), rand.nextInt(height));
+                sizes[i] = MIN_SIZE + rand.nextInt(MAX_SIZE - MIN_SIZE);
+            }
+            long naivePairs = 0, gridPairs = 0;
+            long naive = Long.MAX_VALUE, grid = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                naivePairs = naive(points, sizes);
+                naive = Math.min(naive, System.nanoTime() - start);
+                start = System.nanoTime();
+                gridPairs = grid(points, sizes);
+                grid = Math.min(grid, System.nanoTime() - start);
+            }
+            if (naivePairs != gridPairs)
+                throw new IllegalStateException("Grid found " + gridPairs + " pairs, expected " + naivePairs);
+            System.out.printf("%d\t%.2f\t%.2f\t%d\t%d%n", n, naive / 1e6, grid / 1e6, grid / n, gridPairs);
+        }
+    }
+
+    /**
+     * The old way: every prey against every other animal.
+     */
+    private static long naive(Point[] points, int[] sizes) {
+        long pairs = 0;
+        for (int j = 0; j < points.length; j++)
+            for (int i = 0; i < points.length; i++)
+                if (i != j && points[i].calcDistance(points[j]) < sizes[j])
+                    pairs++;
+        return pairs;
+    }
+
+    /**
+     * Index once, then each prey only looks at the cells within its size.
+     */
+    private static long grid(Point[] points, int[] sizes) {
+        SpatialGrid<Point> grid = new SpatialGrid<>();
+        for (Point point : points)
+            grid.update(point, point);
+        ArrayList<Point> candidates = new ArrayList<>();
+        long pairs = 0;
+        for (int j = 0; j < points.length; j++) {
+            candidates.clear();
+            grid.query(points[j], sizes[j], candidates);
+            for (Point other : candidates)
+                if (other != points[j] && other.calcDistance(points[j]) < sizes[j])
+                    pairs++;
+        }
+        return pairs;
+    }
+}
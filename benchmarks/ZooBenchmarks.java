@@ -0,0 +1,215 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import animals.Bear;
+import animals.Elephant;
+import animals.Giraffe;
+import animals.Lion;
+import animals.Memento;
+import animals.Snapshot;
+import animals.Turtle;
+import diet.Carnivore;
+import diet.Herbivore;
+import diet.IDiet;
+import diet.Omnivore;
+import graphics.ZooPanel;
+import mobility.Point;
+import plants.Cabbage;
+import plants.Plant;
+import utilities.MessageUtility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * The benchmark suite of the simulation core.
+ * Runs headless, without a ZooFrame, so it can track regressions on machines without a display.
+ * Each benchmark is warmed up, then measured in several rounds, and reported as one tab separated line:
+ * name, parameter, best ns/op, average ns/op.
+ * Run with: java benchmarks.ZooBenchmarks [name-filter]
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see SpatialGridBenchmark
+ * @see MovementBenchmark
+ * @see PaintBenchmark
+ */
+public class ZooBenchmarks {
+
+    private static final long WARMUP_NANOS = 1_000_000_000L, ROUND_NANOS = 300_000_000L;
+    private static final int ROUNDS = 5;
+    private static final int[] POPULATIONS = {10, 100, 1000, 10000};
+    private static final int SNAPSHOT_POPULATION = 100_000;
+    private static long sink = 0; // Keeps the results alive so the JIT cannot drop the work
+    private static String filter = "";
+    private static final AnimalRegistry registry = new AnimalRegistry();
+    private static ZooPanel pan;
+
+    public static void main(String[] args) {
+        if (args.length > 0)
+            filter = args[0];
+        System.out.println("benchmark\tparam\tbest ns/op\tavg ns/op");
+        setUp();
+
+        for (int n : POPULATIONS) {
+            populate(n);
+            run("manageZoo", n, () -> {
+                pan.manageZoo();
+                return n;
+            });
+            Animal[] animals = registry.snapshot().toArray(new Animal[0]);
+            run("Animal.update", n, () -> {
+                for (Animal animal : animals)
+                    animal.update(Animal.SPEED / 1000.0);
+                return animals[0].getLocation().getX();
+            });
+        }
+
+        Random rand = new Random(1);
+        Point[] points = new Point[1024];
+        for (int i = 0; i < points.length; i++)
+            points[i] = new Point(rand.nextInt(800), rand.nextInt(600));
+        run("Point.calcDistance", 1024, () -> {
+            double total = 0;
+            for (int i = 0; i < points.length; i++)
+                total += points[i].calcDistance(points[(i + 1) & 1023]);
+            return (long) total;
+        });
+
+        populate(0);
+        Animal lion = add(new Lion(100, 1, 1, "Natural", 400));
+        Animal bear = add(new Bear(100, 1, 1, "Natural", 300));
+        Animal elephant = add(new Elephant(100, 1, 1, "Natural", 500));
+        Plant cabbage = Cabbage.getInstance();
+        diet("Carnivore", new Carnivore(), lion, bear);
+        diet("Omnivore", new Omnivore(), bear, elephant);
+        diet("Herbivore", new Herbivore(), elephant, cabbage);
+
+        run("Memento.capture", 1, () -> new Memento(elephant).getSize());
+        Memento memento = new Memento(elephant);
+        run("Memento.restore", 1, () -> {
+            elephant.setMemento(memento);
+            return elephant.getEatCount();
+        });
+
+        if (selected("Snapshot.capture", "Snapshot.write", "Snapshot.read")) // Populating 100k animals takes a while
+            snapshots(SNAPSHOT_POPULATION);
+        System.out.println("# sink " + sink);
+    }
+
+    private static void snapshots(int n) {
+        populate(n);
+        Path file;
+        try {
+            file = Files.createTempFile("zoo-benchmark", ".zoo");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file.toFile().deleteOnExit();
+        run("Snapshot.capture", n, () -> Snapshot.capture(registry, null).getBytes());
+        Snapshot snapshot = Snapshot.capture(registry, null);
+        run("Snapshot.write", n, () -> {
+            try {
+                snapshot.write(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return snapshot.getBytes();
+        });
+        run("Snapshot.read", n, () -> {
+            try {
+                return Snapshot.read(file).getMementos().size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void diet(String name, IDiet diet, Animal eater, food.IEdible food) {
+        run("IDiet.eat", name, () -> (long) diet.eat(eater, food));
+    }
+
+    /**
+     * Get the headless panel ready, also for the JMH benchmarks (see jmh/README.md).
+     * @return (ZooPanel) the panel, drawing the registry of the suite.
+     */
+    static synchronized ZooPanel setUp() {
+        if (pan == null) {
+            System.setProperty("java.awt.headless", "true");
+            MessageUtility.setLevel(MessageUtility.Level.OFF); // Animals log every setter
+            pan = ZooPanel.getInstance(registry);
+        }
+        return pan;
+    }
+
+    /**
+     * Fill the panel with n animals at the density of 100 animals on 800x600.
+     * All the animals weigh the same, so nobody is eaten and every pass does the same work.
+     * @return (AnimalRegistry) the animals, in the order they were added.
+     */
+    static AnimalRegistry populate(int n) {
+        registry.clear();
+        pan.manageZoo(); // An empty zoo also empties the neighbour grid
+        double scale = Math.sqrt(Math.max(n, 100) / 100.0);
+        pan.setSize((int) (800 * scale), (int) (600 * scale));
+        Random rand = new Random(n);
+        for (int i = 0; i < n; i++) {
+            int size = 50 + rand.nextInt(250);
+            Animal animal = switch (i % 5) {
+                case 0 -> new Lion(size, 1 + rand.nextInt(10), 1 + rand.nextInt(10), "Natural", 100);
+                case 1 -> new Bear(size, 1 + rand.nextInt(10), 1 + rand.nextInt(10), "Natural", 100);
+                case 2 -> new Elephant(size, 1 + rand.nextInt(10), 1 + rand.nextInt(10), "Natural", 100);
+                case 3 -> new Giraffe(size, 1 + rand.nextInt(10), 1 + rand.nextInt(10), "Natural", 100);
+                default -> new Turtle(size, 1 + rand.nextInt(10), 1 + rand.nextInt(10), "Natural", 100);
+            };
+            animal.setLocation(new Point(rand.nextInt(pan.getWidth()), rand.nextInt(pan.getHeight())));
+            add(animal);
+        }
+        return registry;
+    }
+
+    static Animal add(Animal animal) {
+        animal.setPan(pan);
+        registry.add(animal);
+        return animal;
+    }
+
+    private static boolean selected(String... names) {
+        for (String name : names)
+            if (name.contains(filter))
+                return true;
+        return false;
+    }
+
+    private static void run(String name, Object param, LongSupplier body) {
+        if (!selected(name))
+            return;
+        measure(WARMUP_NANOS, body);
+        double best = Double.MAX_VALUE, total = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            double nsPerOp = measure(ROUND_NANOS, body);
+            best = Math.min(best, nsPerOp);
+            total += nsPerOp;
+        }
+        System.out.printf("%s\t%s\t%.1f\t%.1f%n", name, param, best, total / ROUNDS);
+    }
+
+    /**
+     * Call the body until the time is up.
+     * @return (Double) nanoseconds per call.
+     */
+    private static double measure(long nanos, LongSupplier body) {
+        long ops = 0;
+        long start = System.nanoTime(), end = start + nanos, now;
+        do {
+            sink += body.getAsLong();
+            ops++;
+        } while ((now = System.nanoTime()) < end);
+        return (double) (now - start) / ops;
+    }
+}
@@ -4,7 +4,8 @@ import animals.Animal;
 import animals.Lion;
 import food.EFoodType;
 import food.IEdible;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * A simple class to use with carnivore animals.
@@ -22,7 +23,17 @@ public class Carnivore implements IDiet {
 	 * @return true or false.
 	 */
 	public boolean getRandomBoolean() {
-	    Random random = new Random();
+	    return getRandomBoolean(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * A simple Getter of a random boolean from a given generator,
+	 * e.g. the generator of the eating animal, so a seeded world repeats itself.
+	 *
+	 * @param random (RandomGenerator) generator to draw from.
+	 * @return true or false.
+	 */
+	public boolean getRandomBoolean(RandomGenerator random) {
 	    return random.nextBoolean();
 	}
 	
@@ -54,7 +65,7 @@ public class Carnivore implements IDiet {
 		{
 			if (animal instanceof Lion)
 			{
-				if (getRandomBoolean())
+				if (getRandomBoolean(animal.getRandom()))
 					((Lion) animal).addScar();
 			}
 			double temp = animal.getWeight() * 1.1 ; // new weight
@@ -0,0 +1,142 @@
+package graphics;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Active rendering of a ZooPanel.
+ * A render thread of its own draws the zoo on this canvas at a target frame rate and flips the pages
+ * of a BufferStrategy, so frames are paced by the render loop and not by when Swing coalesces repaints.
+ * The simulation only publishes its state, it never asks for a repaint.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see ZooPanel#setActiveRendering(int)
+ */
+public class ActiveRenderer extends Canvas implements Runnable {
+    private static final long serialVersionUID = 1L;
+    private static final int PAGES = 2;
+
+    private final ZooPanel panel;
+    private final long period;
+    private volatile Thread thread = null;
+    private volatile long frames = 0, droppedFrames = 0;
+    private volatile double frameMillis = 0; // Average time to draw a frame, exponentially smoothed
+
+    /**
+     * A ctor of active renderer.
+     * @param panel (ZooPanel) the panel to draw.
+     * @param fps (Integer) target frames per second.
+     */
+    public ActiveRenderer(ZooPanel panel, int fps) {
+        this.panel = panel;
+        this.period = 1_000_000_000L / Math.max(1, fps);
+        setIgnoreRepaint(true); // Every frame comes from the render loop
+    }
+
+    /**
+     * The canvas is shown, make its pages and start the render thread.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(PAGES);
+        synchronized (this) {
+            thread = new Thread(this, "ActiveRenderer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * The canvas is hidden, stop the render thread before the pages go away.
+     */
+    @Override
+    public void removeNotify() {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+            thread = null;
+        }
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * The render loop: draw, flip, then wait for the next frame.
+     * A late frame is not made up for, the loop starts again from now.
+     */
+    @Override
+    public void run() {
+        Thread me = Thread.currentThread();
+        long next = System.nanoTime();
+        while (thread == me) {
+            long start = System.nanoTime();
+            BufferStrategy strategy = getBufferStrategy();
+            if (strategy != null && getWidth() > 0 && getHeight() > 0)
+                renderFrame(strategy);
+            long now = System.nanoTime();
+            frameMillis = frameMillis == 0 ? (now - start) / 1e6 : frameMillis * 0.9 + (now - start) / 1e6 * 0.1;
+            next += period;
+            if (now - next > period) { // More than a frame late
+                droppedFrames += (now - next) / period;
+                next = now;
+            }
+            LockSupport.parkNanos(this, next - now);
+        }
+    }
+
+    private void renderFrame(BufferStrategy strategy) {
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    panel.render(g, getWidth(), getHeight());
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        frames++;
+    }
+
+    @Override
+    public void paint(Graphics g) {} // Frames come from the render loop
+
+    @Override
+    public void update(Graphics g) {}
+
+    /**
+     * A getter of the number of frames shown.
+     * @return (Long) frames count.
+     */
+    public long getFrames() { return frames; }
+
+    /**
+     * A getter of the number of frames skipped because drawing was late.
+     * @return (Long) dropped frames count.
+     */
+    public long getDroppedFrames() { return droppedFrames; }
+
+    /**
+     * A getter of the average time to draw a frame.
+     * @return (Double) milliseconds.
+     */
+    public double getFrameMillis() { return frameMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames at %.0f fps target, %.1f ms each, %d dropped",
+                frames, 1e9 / period, frameMillis, droppedFrames);
+    }
+}
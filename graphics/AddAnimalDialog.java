@@ -5,7 +5,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
 
 /**
  * A dialog class that allows you to define a new animal with parameters:
@@ -27,11 +26,11 @@ public class AddAnimalDialog extends JDialog {
     /**
      * A Ctor of AddAnimalDialog, make a dialog for adding an animal to the zoo.
      * @param Animals
-     *          ArrayList<Animal> of all existing animals.
+     *          AnimalRegistry of all existing animals.
      * @param zooPanel
      *          Provided ZooPanel for drawing animals.
      */
-    public AddAnimalDialog(ArrayList<Animal> Animals, ZooPanel zooPanel, String[] animals)
+    public AddAnimalDialog(AnimalRegistry Animals, ZooPanel zooPanel, String[] animals)
     {
         JComboBox<String> cbAnimals = new JComboBox<>(animals);
         this.setLayout(new GridLayout(6, 2));
@@ -78,42 +77,48 @@ public class AddAnimalDialog extends JDialog {
                         JOptionPane.showMessageDialog(null, "Speed should be between 1 and 10");
                     }
                     if (flag) {
+                        Animal animal = null;
                         switch (cbAnimals.getItemAt(cbAnimals.getSelectedIndex())) {
-                            case "Elephant" -> Animals.add(new Elephant(Integer.parseInt(tbSize.getText()),
+                            case "Elephant" -> animal = new Elephant(Integer.parseInt(tbSize.getText()),
                                     Integer.parseInt(tbHspeed.getText()),
                                     Integer.parseInt(tbVspeed.getText()),
                                     cbColors.getItemAt(cbColors.getSelectedIndex()),
-                                    getWeight(("Elephant"), Integer.parseInt(tbSize.getText()))));
-                            case "Lion" -> Animals.add(new Lion(Integer.parseInt(tbSize.getText()),
+                                    getWeight(("Elephant"), Integer.parseInt(tbSize.getText())));
+                            case "Lion" -> animal = new Lion(Integer.parseInt(tbSize.getText()),
                                     Integer.parseInt(tbHspeed.getText()),
                                     Integer.parseInt(tbVspeed.getText()),
                                     cbColors.getItemAt(cbColors.getSelectedIndex()),
-                                    getWeight(("Lion"), Integer.parseInt(tbSize.getText()))));
-                            case "Giraffe" -> Animals.add(new Giraffe(Integer.parseInt(tbSize.getText()),
+                                    getWeight(("Lion"), Integer.parseInt(tbSize.getText())));
+                            case "Giraffe" -> animal = new Giraffe(Integer.parseInt(tbSize.getText()),
                                     Integer.parseInt(tbHspeed.getText()),
                                     Integer.parseInt(tbVspeed.getText()),
                                     cbColors.getItemAt(cbColors.getSelectedIndex()),
-                                    getWeight(("Giraffe"), Integer.parseInt(tbSize.getText()))));
-                            case "Turtle" -> Animals.add(new Turtle(Integer.parseInt(tbSize.getText()),
+                                    getWeight(("Giraffe"), Integer.parseInt(tbSize.getText())));
+                            case "Turtle" -> animal = new Turtle(Integer.parseInt(tbSize.getText()),
                                     Integer.parseInt(tbHspeed.getText()),
                                     Integer.parseInt(tbVspeed.getText()),
                                     cbColors.getItemAt(cbColors.getSelectedIndex()),
-                                    getWeight(("Turtle"), Integer.parseInt(tbSize.getText()))));
-                            case "Bear" -> Animals.add(new Bear(Integer.parseInt(tbSize.getText()),
+                                    getWeight(("Turtle"), Integer.parseInt(tbSize.getText())));
+                            case "Bear" -> animal = new Bear(Integer.parseInt(tbSize.getText()),
                                     Integer.parseInt(tbHspeed.getText()),
                                     Integer.parseInt(tbVspeed.getText()),
                                     cbColors.getItemAt(cbColors.getSelectedIndex()),
-                                    getWeight(("Bear"), Integer.parseInt(tbSize.getText()))));
+                                    getWeight(("Bear"), Integer.parseInt(tbSize.getText())));
                         }
-                        Animals.get(Animals.size()-1).setPan(zooPanel);
-                        Animals.get(Animals.size()-1).drawObject(zooPanel.getGraphics());
+                        animal.setPan(zooPanel);
+                        animal.registerObserver(o);
+                        Animals.add(animal);
+                        animal.drawObject(zooPanel.getGraphics());
                         zooPanel.repaint();
-                        JOptionPane.showMessageDialog(null, "The animal was added successfully");
-                        dispose();
+                        if (zooPanel.addToQueue(animal))
+                            JOptionPane.showMessageDialog(null, "The animal was added successfully");
+                        else {
+                            Animals.remove(animal);
+                            zooPanel.repaint();
+                            JOptionPane.showMessageDialog(null, "The animal could not be scheduled, it was not added");
+                        }
                     }
-                    else dispose();
-                    zooPanel.addToQueue(Animals.get(Animals.size()-1));
-                    Animals.get(Animals.size()-1).registerObserver(o);
+                    dispose();
                 }
             }
         });
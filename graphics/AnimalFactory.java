@@ -1,7 +1,6 @@
 package graphics;
 
-import animals.Animal;
-import java.util.ArrayList;
+import animals.AnimalRegistry;
 
 /**
  * This is an abstract factory class.
@@ -15,19 +14,19 @@ import java.util.ArrayList;
 public class AnimalFactory implements IAbstractFactory {
 
     @Override
-    public void addCarnivore(ZooPanel zooPanel, ArrayList<Animal> Animals) {
+    public void addCarnivore(ZooPanel zooPanel, AnimalRegistry Animals) {
         String[] animalsType = {"Lion"};
         new AddAnimalDialog(Animals,zooPanel, animalsType);
     }
 
     @Override
-    public void addOmnivore(ZooPanel zooPanel, ArrayList<Animal> Animals) {
+    public void addOmnivore(ZooPanel zooPanel, AnimalRegistry Animals) {
         String[] animalsType = {"Bear"};
         new AddAnimalDialog(Animals,zooPanel, animalsType);
     }
 
     @Override
-    public void addHerbivore(ZooPanel zooPanel, ArrayList<Animal> Animals) {
+    public void addHerbivore(ZooPanel zooPanel, AnimalRegistry Animals) {
         String[] animalsType = {"Elephant", "Giraffe", "Turtle"};
         new AddAnimalDialog(Animals,zooPanel, animalsType);
     }
@@ -32,7 +32,6 @@ public class ColoredDecorator implements IAnimalDecorator{
      *          Otherwise, false.
      */
     public boolean changeColor(String color) {
-        animal.loadImages(animal.getColorToFile(color));
         Animal other = animal;
         if (other.setColor(color)) {
             other.loadImages(other.getColorToFile(color));
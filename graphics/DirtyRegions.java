@@ -0,0 +1,113 @@
+package graphics;
+
+import zoo.RenderSnapshot;
+
+import java.awt.*;
+
+/**
+ * Finds what has to be repainted between two render snapshots of the zoo.
+ * An animal that moved, turned, changed its look, appeared or disappeared dirties where it was and where it is now,
+ * and so does the food. The animals of both snapshots are in the order of their ids, so they are matched in one pass.
+ * The panel always paints the newest snapshot, and every published snapshot is compared with the one before it,
+ * so whatever a paint draws is covered again by a later repaint.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see ZooPanel
+ */
+public class DirtyRegions {
+
+    /**
+     * Part of the panel above which the dirty region is not worth clipping to, and the whole panel is repainted.
+     */
+    public static final double FULL_REPAINT_COVERAGE = 0.5;
+
+    private final RenderSnapshot drawn = new RenderSnapshot(); // A copy, the published one is handed back
+    private long partial = 0, full = 0, skipped = 0;
+
+    /**
+     * Compare a snapshot with the previous one.
+     * @param next (RenderSnapshot) the newest snapshot.
+     * @param width (Integer) width of the panel.
+     * @param height (Integer) height of the panel.
+     * @return (Rectangle) the region to repaint: null for nothing, the whole panel when the dirty region covers most of it.
+     */
+    public synchronized Rectangle update(RenderSnapshot next, int width, int height) {
+        RenderSnapshot before = drawn;
+        if (next.getSequence() < before.getSequence()) // Already compared with a newer one
+            return null;
+        Rectangle dirty = null;
+        int i = 0, j = 0;
+        while (i < before.size() || j < next.size()) {
+            int was = i < before.size() ? before.getId(i) : Integer.MAX_VALUE;
+            int is = j < next.size() ? next.getId(j) : Integer.MAX_VALUE;
+            if (was < is) // Left the zoo
+                dirty = union(dirty, before, i++);
+            else if (is < was) // Joined the zoo
+                dirty = union(dirty, next, j++);
+            else {
+                if (!before.looksSame(i, next, j))
+                    dirty = union(union(dirty, before, i), next, j);
+                i++;
+                j++;
+            }
+        }
+        if (before.getFood() != next.getFood() || before.getFoodX() != next.getFoodX() || before.getFoodY() != next.getFoodY())
+            dirty = unionFood(unionFood(dirty, before), next);
+        drawn.copyFrom(next);
+        if (dirty == null || width <= 0 || height <= 0) {
+            skipped++;
+            return null;
+        }
+        dirty = dirty.intersection(new Rectangle(width, height));
+        if (dirty.isEmpty()) {
+            skipped++;
+            return null;
+        }
+        if ((double) dirty.width * dirty.height >= FULL_REPAINT_COVERAGE * width * height) {
+            full++;
+            return new Rectangle(width, height);
+        }
+        partial++;
+        return dirty;
+    }
+
+    private static Rectangle union(Rectangle dirty, RenderSnapshot snapshot, int i) {
+        return union(dirty, snapshot.getLeft(i), snapshot.getTop(i), snapshot.getWidth(i), snapshot.getHeight(i));
+    }
+
+    private static Rectangle unionFood(Rectangle dirty, RenderSnapshot snapshot) {
+        return snapshot.getFood() < 0 ? dirty : union(dirty, snapshot.getFoodX(), snapshot.getFoodY(),
+                RenderSnapshot.FOOD_SIZE, RenderSnapshot.FOOD_SIZE);
+    }
+
+    private static Rectangle union(Rectangle dirty, int x, int y, int width, int height) {
+        if (dirty == null)
+            return new Rectangle(x, y, width, height);
+        dirty.add(new Rectangle(x, y, width, height));
+        return dirty;
+    }
+
+    /**
+     * A getter of the number of passes repainted in part.
+     * @return (Long) partial repaints count.
+     */
+    public synchronized long getPartial() { return partial; }
+
+    /**
+     * A getter of the number of passes that fell back to repainting the whole panel.
+     * @return (Long) full repaints count.
+     */
+    public synchronized long getFull() { return full; }
+
+    /**
+     * A getter of the number of passes where nothing drawn changed.
+     * @return (Long) skipped repaints count.
+     */
+    public synchronized long getSkipped() { return skipped; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d partial, %d full, %d skipped repaints", partial, full, skipped);
+    }
+}
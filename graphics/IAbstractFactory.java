@@ -1,14 +1,12 @@
 package graphics;
 
-import animals.Animal;
-
-import java.util.ArrayList;
+import animals.AnimalRegistry;
 
 public interface IAbstractFactory {
 
-void addCarnivore(ZooPanel zooPanel, ArrayList<Animal> Animals);
+void addCarnivore(ZooPanel zooPanel, AnimalRegistry Animals);
 
-void addOmnivore(ZooPanel zooPanel, ArrayList<Animal> Animals);
+void addOmnivore(ZooPanel zooPanel, AnimalRegistry Animals);
 
-void addHerbivore(ZooPanel zooPanel, ArrayList<Animal> Animals);
+void addHerbivore(ZooPanel zooPanel, AnimalRegistry Animals);
 }
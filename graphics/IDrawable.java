@@ -14,5 +14,6 @@ public interface IDrawable {
     public final static String PICTURE_PATH = "assignment2_pictures";
     public void loadImages(String nm);
     public void drawObject (Graphics g);
+    public Rectangle getBounds();
     public Color getColor();
 }
@@ -1,11 +1,12 @@
 package graphics;
 
 import animals.Animal;
+import animals.AnimalRegistry;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
+import java.util.List;
 import mobility.Point;
 
 /**
@@ -31,12 +32,13 @@ public class MoveAnimalDialog extends JDialog {
     /**
      * A Ctor of MoveAnimalDialog, make a dialog for moving an animal.
      * @param Animals
-     *          ArrayList<Animal> of all existing animals.
+     *          AnimalRegistry of all existing animals.
      * @param zooPanel
      *          Provided ZooPanel for drawing animals.
      */
-    public MoveAnimalDialog(ArrayList<Animal> Animals, ZooPanel zooPanel) {
+    public MoveAnimalDialog(AnimalRegistry registry, ZooPanel zooPanel) {
         {
+            List<Animal> Animals = registry.snapshot();
             this.setTitle("Move Animal");
             String[] animalsClassName = new String[Animals.size()];
             for (int i=0; i<Animals.size(); i++)
@@ -78,7 +80,7 @@ public class MoveAnimalDialog extends JDialog {
                             if (Animals.get(cbAnimals.getSelectedIndex()).getLocation().getX() < point.getX())
                                 Animals.get(cbAnimals.getSelectedIndex()).setChanges(true);
                             else Animals.get(cbAnimals.getSelectedIndex()).setChanges(false);
-                            Animals.get(cbAnimals.getSelectedIndex()).setLocation(point);
+                            zooPanel.getWorld().move(Animals.get(cbAnimals.getSelectedIndex()), point);
                             zooPanel.manageZoo();
                             zooPanel.repaint();
                             dispose();
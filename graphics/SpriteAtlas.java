@@ -0,0 +1,155 @@
+package graphics;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A process-wide atlas of pre-scaled sprites.
+ * A sprite is scaled once per (image, width, height) the first time it is drawn at that size,
+ * then every paint is a plain unscaled blit.
+ * Sizes are rounded down to buckets about 6% apart, so the animals of a zoo, whose sizes may take any of
+ * hundreds of values, share a few dozen variants of each sprite, and a sprite is never drawn larger than asked.
+ * The atlas keeps every variant drawn until they take more than a budget of pixels,
+ * only then are the least recently used ones evicted.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see SpriteCache
+ */
+public class SpriteAtlas {
+
+    /**
+     * Default number of pixels of all the scaled variants kept, 128 MB of ARGB sprites:
+     * every species, color and direction at every bucket of the animal sizes.
+     */
+    public static final long DEFAULT_MAX_PIXELS = 32L << 20;
+    /**
+     * Sizes from this one up are rounded down to a multiple of a sixteenth of their highest bit.
+     */
+    private static final int BUCKETS_FROM = 32;
+
+    /**
+     * A scaled variant: the cached source image (compared by identity) and the target size.
+     */
+    private static final class Key {
+        final BufferedImage src;
+        final int width, height;
+
+        Key(BufferedImage src, int width, int height) {
+            this.src = src;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.src == src && k.width == width && k.height == height;
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(System.identityHashCode(src), width, height); }
+    }
+
+    private static long maxPixels = DEFAULT_MAX_PIXELS;
+    private static long pixels = 0, misses = 0;
+    private static final LinkedHashMap<Key, BufferedImage> scaled = new LinkedHashMap<>(64, 0.75f, true);
+
+    private SpriteAtlas() {}
+
+    /**
+     * A getter of a sprite scaled to a size.
+     * @param src (BufferedImage) source sprite, usually from SpriteCache.
+     * @param width (Integer) target width.
+     * @param height (Integer) target height.
+     * @return (BufferedImage) the sprite scaled to the buckets of the size, at most as large as asked,
+     * or null if src is null.
+     */
+    public static synchronized BufferedImage get(BufferedImage src, int width, int height) {
+        if (src == null || width <= 0 || height <= 0)
+            return null;
+        if (src.getWidth() == width && src.getHeight() == height)
+            return src;
+        width = bucket(width);
+        height = bucket(height);
+        Key key = new Key(src, width, height);
+        BufferedImage img = scaled.get(key);
+        if (img == null) {
+            misses++;
+            img = scale(src, width, height);
+            scaled.put(key, img);
+            pixels += (long) width * height;
+            evict();
+        }
+        return img;
+    }
+
+    /**
+     * Round a size down to its bucket: exact below 32, then steps of a sixteenth of the highest bit,
+     * e.g. 4 from 64 to 127 and 16 from 256 to 511.
+     * @param size (Integer) size in pixels.
+     * @return (Integer) the bucket, at most size and less than 1/16 below it.
+     */
+    static int bucket(int size) {
+        if (size < BUCKETS_FROM)
+            return size;
+        int step = Integer.highestOneBit(size) >> 4;
+        return size - size % step;
+    }
+
+    /**
+     * A setter of the number of pixels of the scaled variants kept.
+     * @param maxPixels (Long) maximum pixels of all the variants.
+     * @return True if succeeded, otherwise false.
+     */
+    public static synchronized boolean setMaxPixels(long maxPixels) {
+        if (maxPixels <= 0)
+            return false;
+        SpriteAtlas.maxPixels = maxPixels;
+        evict();
+        return true;
+    }
+
+    /**
+     * Evict the least recently used variants until the rest fit in the budget, always keeping the newest.
+     */
+    private static void evict() {
+        Iterator<Map.Entry<Key, BufferedImage>> it = scaled.entrySet().iterator();
+        while (pixels > maxPixels && scaled.size() > 1) {
+            Key key = it.next().getKey();
+            pixels -= (long) key.width * key.height;
+            it.remove();
+        }
+    }
+
+    /**
+     * A getter of the number of scaled variants in the atlas.
+     * @return (Integer) entries count.
+     */
+    public static synchronized int size() { return scaled.size(); }
+
+    /**
+     * A getter of the number of pixels of the scaled variants in the atlas.
+     * @return (Long) pixels count.
+     */
+    public static synchronized long getPixels() { return pixels; }
+
+    /**
+     * A getter of the number of times a sprite had to be scaled.
+     * @return (Long) misses count.
+     */
+    public static synchronized long getMisses() { return misses; }
+
+    private static BufferedImage scale(BufferedImage src, int width, int height) {
+        BufferedImage img = new BufferedImage(src.getColorModel(), src.getRaster().createCompatibleWritableRaster(width, height),
+                src.isAlphaPremultiplied(), null); // Same format as the compatible source
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, 0, 0, width, height, null);
+        g.dispose();
+        return img;
+    }
+}
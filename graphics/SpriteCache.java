@@ -0,0 +1,117 @@
+package graphics;
+
+import utilities.Catalog;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A process-wide cache of the sprite images under IDrawable.PICTURE_PATH.
+ * Every file is read from disk once and converted to an image format
+ * compatible with the screen, so creating, recoloring or restoring animals
+ * and placing food never read the disk again.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see IDrawable
+ */
+public class SpriteCache {
+
+    private static final String[] SPECIES = Catalog.SPECIES_FILES, COLORS = Catalog.COLOR_FILES;
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    private static final ConcurrentHashMap<String, BufferedImage> images = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<BufferedImage> animals = // By sprite id and direction
+            new AtomicReferenceArray<>(SPECIES.length * COLORS.length * 2);
+    private static final AtomicInteger diskReads = new AtomicInteger();
+
+    private SpriteCache() {}
+
+    /**
+     * A getter of an animal sprite.
+     * @param species (String) file prefix of the species, e.g. "lio".
+     * @param color (String) file part of the color, e.g. "n".
+     * @param direction (Integer) 1 for the right-facing image, 2 for the left-facing one.
+     * @return (BufferedImage) the image, or null if it cannot be loaded.
+     */
+    public static BufferedImage getAnimal(String species, String color, int direction) {
+        return get(species + "_" + color + "_" + direction + ".png");
+    }
+
+    /**
+     * A getter of an animal sprite by its id, without building a file name.
+     * @param sprite (Integer) species index times the number of colors plus color index (see zoo.RenderSnapshot).
+     * @param direction (Integer) 1 for the right-facing image, 2 for the left-facing one.
+     * @return (BufferedImage) the image, or null if it cannot be loaded.
+     */
+    public static BufferedImage getAnimal(int sprite, int direction) {
+        int index = sprite * 2 + direction - 1;
+        BufferedImage img = animals.get(index);
+        if (img == null) { // Racing threads get the same cached image
+            img = getAnimal(SPECIES[sprite / COLORS.length], COLORS[sprite % COLORS.length], direction);
+            animals.set(index, img);
+        }
+        return img;
+    }
+
+    /**
+     * A getter of an image under the picture path.
+     * @param fileName (String) name of the file in IDrawable.PICTURE_PATH.
+     * @return (BufferedImage) the image, or null if it cannot be loaded.
+     */
+    public static BufferedImage get(String fileName) {
+        BufferedImage img = images.computeIfAbsent(fileName, SpriteCache::load);
+        return img == MISSING ? null : img;
+    }
+
+    /**
+     * Load every animal and food sprite, so the first animals do not wait for the disk.
+     */
+    public static void preload() {
+        for (String species : SPECIES)
+            for (String color : COLORS)
+                for (int direction = 1; direction <= 2; direction++)
+                    getAnimal(species, color, direction);
+        for (String food : Catalog.FOOD_FILES)
+            get(food);
+    }
+
+    /**
+     * A getter of the number of files read from disk so far.
+     * @return (Integer) disk reads count.
+     */
+    public static int getDiskReads() { return diskReads.get(); }
+
+    private static BufferedImage load(String fileName) {
+        diskReads.incrementAndGet();
+        try {
+            BufferedImage img = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/" + fileName));
+            return img == null ? MISSING : toCompatible(img);
+        } catch (IOException ex) {
+            System.out.println("Cannot load image " + fileName);
+            return MISSING;
+        }
+    }
+
+    /**
+     * Copy an image into the format of the screen, or premultiplied ARGB when there is no screen,
+     * so drawing it does not need a conversion on every paint.
+     */
+    private static BufferedImage toCompatible(BufferedImage img) {
+        BufferedImage copy;
+        if (GraphicsEnvironment.isHeadless())
+            copy = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        else
+            copy = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().createCompatibleImage(img.getWidth(), img.getHeight(), Transparency.TRANSLUCENT);
+        Graphics2D g = copy.createGraphics();
+        g.drawImage(img, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+}
@@ -1,30 +1,328 @@
 package graphics;
 
 import java.awt.*;
+import java.lang.reflect.Method;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs the animals that move on threads of their own.
+ * Either an elastic pool that grows from its core size to its max size before queueing,
+ * or one virtual thread per animal (see perAnimal).
+ * An animal never ends, so it gets a thread or is refused, it is never queued (see addToPool).
+ * Finite tasks are queued, and what happens when the pool and its queue are full is set by a Policy (see execute).
+ * The pool keeps live metrics of its threads, queue and tasks.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see animals.Animal#run()
+ */
 public class ThreadPool extends Component {
-    private int corePoolSize;
-    private int maxPoolSize;
-    private int keepAliveTime;
-    private ExecutorService threadPoolExecutor;
-    private volatile BlockingQueue<Runnable> linkedBlockingQueue;
 
+    /**
+     * What to do with a finite task when all the threads are busy and the queue is full.
+     * Tasks that never end, like animals, are refused whatever the policy.
+     */
+    public enum Policy {
+        /** Run the task on the thread that submitted it. */
+        CALLER_RUNS,
+        /** Queue the task anyway, the queue grows past its capacity. */
+        QUEUE_GROW,
+        /** Drop the oldest queued task to make room for this one. */
+        DROP_OLDEST
+    }
+
+    /**
+     * Default keep alive of the threads above the core size, in seconds.
+     */
+    public static final int DEFAULT_KEEP_ALIVE = 60;
+
+    /**
+     * A queue that refuses tasks while the pool can still add threads,
+     * so the pool grows to its max size before anything waits.
+     * A task that never ends is only handed to an idle thread, it would wait in the queue forever.
+     */
+    private static final class ElasticQueue extends LinkedTransferQueue<Runnable> {
+        private static final long serialVersionUID = 1L; // Never serialized, the queues are Serializable
+        private final int capacity;
+        private ThreadPoolExecutor executor;
+
+        ElasticQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(Runnable task) {
+            if (task instanceof Timed timed && timed.endless)
+                return tryTransfer(task);
+            if (executor.getPoolSize() < executor.getMaximumPoolSize() || size() >= capacity)
+                return false;
+            return super.offer(task);
+        }
+
+        boolean force(Runnable task) { return super.offer(task); }
+    }
+
+    private final ExecutorService threadPoolExecutor;
+    private final ElasticQueue queue; // Null for perAnimal pools
+    private final Policy policy;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    /**
+     * A ctor of an elastic pool that queues as many tasks as it has max threads,
+     * and grows the queue when that is full.
+     * @param corePoolSize (Integer) threads kept alive when idle.
+     * @param maxPoolSize (Integer) threads at most.
+     */
     public ThreadPool(int corePoolSize, int maxPoolSize) {
-        this.corePoolSize = corePoolSize;
-        this.maxPoolSize = maxPoolSize;
-        this.linkedBlockingQueue = new LinkedBlockingQueue<>(maxPoolSize);
-        this.threadPoolExecutor = new ThreadPoolExecutor(corePoolSize, corePoolSize, 1,
-                TimeUnit.MINUTES, linkedBlockingQueue);
+        this(corePoolSize, maxPoolSize, maxPoolSize, Policy.QUEUE_GROW);
+    }
+
+    /**
+     * A ctor of an elastic pool.
+     * @param corePoolSize (Integer) threads kept alive when idle.
+     * @param maxPoolSize (Integer) threads at most, at least corePoolSize.
+     * @param queueCapacity (Integer) finite tasks waiting at most before the policy applies.
+     * @param policy (Policy) what to do with a finite task when the pool and the queue are full.
+     */
+    public ThreadPool(int corePoolSize, int maxPoolSize, int queueCapacity, Policy policy) {
+        if (corePoolSize < 0 || maxPoolSize <= 0 || maxPoolSize < corePoolSize || queueCapacity < 0 || policy == null)
+            throw new IllegalArgumentException("Bad pool sizes " + corePoolSize + "/" + maxPoolSize + "/" + queueCapacity);
+        this.policy = policy;
+        this.queue = new ElasticQueue(queueCapacity);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, DEFAULT_KEEP_ALIVE,
+                TimeUnit.SECONDS, queue, r -> {
+                    Thread t = new Thread(r, "ThreadPool");
+                    t.setDaemon(true);
+                    return t;
+                }, this::rejected);
+        queue.executor = executor;
+        this.threadPoolExecutor = executor;
+    }
+
+    private ThreadPool(ExecutorService executor) {
+        this.threadPoolExecutor = executor;
+        this.queue = null;
+        this.policy = Policy.QUEUE_GROW; // Never used, nothing is rejected
     }
 
+    /**
+     * A pool that gives every animal a virtual thread of its own and never rejects one,
+     * so a sleeping or suspended animal only parks and 100k animals cost no more than their stacks on the heap.
+     * Needs Java 21 or later: an OS thread per animal would not scale, so there is no fallback to platform threads.
+     * @return (ThreadPool) the pool.
+     * @throws UnsupportedOperationException if the JVM has no virtual threads, see hasVirtualThreads.
+     */
+    public static ThreadPool perAnimal() {
+        Method factory = virtualExecutorFactory();
+        if (factory == null)
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later, this is Java "
+                    + Runtime.version().feature());
+        try {
+            return new ThreadPool((ExecutorService) factory.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available", e);
+        }
+    }
+
+    /**
+     * Check if perAnimal() pools run on virtual threads.
+     * @return True on Java 21 and later, otherwise false.
+     */
+    public static boolean hasVirtualThreads() {
+        return virtualExecutorFactory() != null;
+    }
+
+    private static Method virtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run a task that may never end, e.g. an animal, on a thread of its own.
+     * It is never queued and never run on the calling thread: if all the threads are busy and the pool
+     * is at its max size, it is refused whatever the policy.
+     * @param other (Runnable) the task, usually an animal.
+     * @return True if the task got a thread, false if the pool is full or shut down.
+     */
     public boolean addToPool(Runnable other)
     {
+        return submit(new Timed(other, true));
+    }
+
+    /**
+     * Run a finite task on the pool, queued if all the threads are busy.
+     * When the queue is full too, the policy of the pool applies.
+     * @param task (Runnable) the task, it must end.
+     * @return True if the task was accepted, false if the pool is shut down.
+     */
+    public boolean execute(Runnable task)
+    {
+        return submit(new Timed(task, false));
+    }
+
+    private boolean submit(Timed task) {
         try {
-            this.threadPoolExecutor.execute(other);
+            submitted.incrementAndGet();
+            this.threadPoolExecutor.execute(task);
             return true;
         } catch (RejectedExecutionException e) {
+            submitted.decrementAndGet();
             return false;
         }
     }
+
+    /**
+     * A setter of the core size, can be changed while running.
+     * @param corePoolSize (Integer) threads kept alive when idle.
+     * @return True if succeeded, otherwise false.
+     */
+    public boolean setCorePoolSize(int corePoolSize) {
+        if (!(threadPoolExecutor instanceof ThreadPoolExecutor executor)
+                || corePoolSize < 0 || corePoolSize > executor.getMaximumPoolSize())
+            return false;
+        executor.setCorePoolSize(corePoolSize);
+        return true;
+    }
+
+    /**
+     * A setter of the max size, can be changed while running.
+     * @param maxPoolSize (Integer) threads at most.
+     * @return True if succeeded, otherwise false.
+     */
+    public boolean setMaxPoolSize(int maxPoolSize) {
+        if (!(threadPoolExecutor instanceof ThreadPoolExecutor executor)
+                || maxPoolSize <= 0 || maxPoolSize < executor.getCorePoolSize())
+            return false;
+        executor.setMaximumPoolSize(maxPoolSize);
+        return true;
+    }
+
+    /**
+     * A getter of the policy used when the pool is full.
+     * @return (Policy) the policy.
+     */
+    public Policy getPolicy() { return policy; }
+
+    /**
+     * A getter of the number of threads running a task.
+     * @return (Integer) active threads.
+     */
+    public int getActiveCount() { return active.get(); }
+
+    /**
+     * A getter of the number of threads, busy or idle.
+     * @return (Integer) threads in the pool, or the active threads for a perAnimal pool.
+     */
+    public int getPoolSize() {
+        return threadPoolExecutor instanceof ThreadPoolExecutor executor ? executor.getPoolSize() : getActiveCount();
+    }
+
+    /**
+     * A getter of the number of tasks waiting for a thread.
+     * @return (Integer) queue depth.
+     */
+    public int getQueueDepth() { return queue == null ? 0 : queue.size(); }
+
+    /**
+     * A getter of the number of tasks accepted so far.
+     * @return (Long) submitted count.
+     */
+    public long getSubmittedCount() { return submitted.get(); }
+
+    /**
+     * A getter of the number of tasks that finished.
+     * @return (Long) completed count.
+     */
+    public long getCompletedCount() { return completed.get(); }
+
+    /**
+     * A getter of the number of times the pool and its queue were full,
+     * whatever the policy did with the task, and of the refused tasks that never end.
+     * @return (Long) rejection count.
+     */
+    public long getRejectedCount() { return rejected.get(); }
+
+    /**
+     * A getter of the number of queued tasks dropped by the DROP_OLDEST policy.
+     * @return (Long) dropped count.
+     */
+    public long getDroppedCount() { return dropped.get(); }
+
+    /**
+     * A getter of the average run time of the finished tasks.
+     * @return (Double) milliseconds, 0 if no task finished.
+     */
+    public double getAverageRunMillis() {
+        long n = completed.get();
+        return n == 0 ? 0 : totalRunNanos.get() / 1e6 / n;
+    }
+
+    /**
+     * A getter of the longest run time of a finished task.
+     * @return (Double) milliseconds.
+     */
+    public double getMaxRunMillis() { return maxRunNanos.get() / 1e6; }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d threads active, %d queued, %d completed, %d rejected (%s), avg %.1f ms, max %.1f ms",
+                getActiveCount(), getPoolSize(), getQueueDepth(), getCompletedCount(), getRejectedCount(),
+                policy, getAverageRunMillis(), getMaxRunMillis());
+    }
+
+    private void rejected(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown())
+            throw new RejectedExecutionException("The pool is shut down");
+        rejected.incrementAndGet();
+        if (((Timed) task).endless)
+            throw new RejectedExecutionException("All the threads are busy");
+        switch (policy) {
+            case CALLER_RUNS -> task.run();
+            case QUEUE_GROW -> queue.force(task);
+            case DROP_OLDEST -> {
+                if (queue.poll() != null)
+                    dropped.incrementAndGet();
+                queue.force(task);
+            }
+        }
+    }
+
+    /**
+     * A task wrapper that keeps the active count and the run times.
+     */
+    private final class Timed implements Runnable {
+        private final Runnable task;
+        private final boolean endless;
+
+        Timed(Runnable task, boolean endless) {
+            this.task = task;
+            this.endless = endless;
+        }
+
+        @Override
+        public void run() {
+            active.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                long time = System.nanoTime() - start;
+                active.decrementAndGet();
+                completed.incrementAndGet();
+                totalRunNanos.addAndGet(time);
+                maxRunNanos.accumulateAndGet(time, Math::max);
+            }
+        }
+    }
 }
@@ -1,20 +1,25 @@
 package graphics;
 
 import animals.Animal;
+import animals.AnimalRegistry;
+import animals.BackupDirectory;
 import animals.Caretaker;
+import animals.HistoryRing;
 import animals.Memento;
 import mobility.Point;
 import plants.*;
-import javax.imageio.ImageIO;
+import zoo.Checkpointer;
+import zoo.SimulationEngine;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A frame class that combined the menu bar,
@@ -25,7 +30,7 @@ import java.util.ArrayList;
  * @see ZooPanel
  */
 public class ZooFrame extends JFrame {
-    protected ArrayList<Animal> Animals = new ArrayList<>();
+    protected AnimalRegistry Animals = new AnimalRegistry();
     private Plant foodType;
     protected JPanel mainP = new JPanel();
     private final JMenu File, Background, Help;
@@ -39,8 +44,8 @@ public class ZooFrame extends JFrame {
     private final JComboBox<String> cbColors = new JComboBox<>(colors);
     private final JLabel labelAnimal = new JLabel();
     private final JLabel labelColor = new JLabel();
-    private final Caretaker caretaker = new Caretaker();
-    private ArrayList<Memento> mementos = new ArrayList<>();
+    private final Caretaker caretaker = newCaretaker();
+    private Checkpointer checkpointer = null;
 
     /**
      * ZooFrame constructor - make a frame for all the used components.
@@ -48,9 +53,8 @@ public class ZooFrame extends JFrame {
      */
     ZooFrame() {
         this.setTitle("Zoo");
-        try {   // Read image file
-            backgroundImage = ImageIO.read(new File("assignment2_pictures/savanna.jpg"));
-        } catch (IOException ex) {System.out.println("Cannot load image"); }
+        SpriteCache.preload(); // Read all the sprites once, before any animal is added
+        backgroundImage = SpriteCache.get("savanna.jpg");
         this.setLayout(new BorderLayout()); // For image background
         File=new JMenu("File");
         Background = new JMenu("Background");
@@ -61,6 +65,7 @@ public class ZooFrame extends JFrame {
         i4=new JMenuItem("None");
         i5=new JMenuItem("Help");
         zooPanel = ZooPanel.getInstance(Animals);
+        checkpointer = new Checkpointer(zooPanel.getWorld(), caretaker);
         File.add(i1);
         i1.addActionListener(new ActionListener() {
             @Override
@@ -179,7 +184,7 @@ public class ZooFrame extends JFrame {
         sleepButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                for (Animal animal : Animals) animal.setSuspended();
+                zooPanel.getWorld().getClock().pause(); // One flag for the whole zoo
                 repaint();
             }
         });
@@ -188,10 +193,8 @@ public class ZooFrame extends JFrame {
         wakeUpButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                synchronized (this) {
-                    for (Animal animal : Animals) animal.setResumed();
-                    repaint();
-                }
+                zooPanel.getWorld().getClock().resume();
+                repaint();
             }
         });
         /*--------------------Clear--------------------*/
@@ -286,7 +289,12 @@ public class ZooFrame extends JFrame {
         infoButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                JFrame infoFrame = new JFrame("Info");
+                ThreadPool pool = zooPanel.getPool();
+                JFrame infoFrame = new JFrame("Info - " + (pool != null ? pool.toString()
+                        : zooPanel.getFrameScheduler().getAvoidedPasses() + " redundant zoo passes avoided")
+                        + (checkpointer.getCheckpoints() > 0 ? " - " + checkpointer : "")
+                        + " - " + (zooPanel.getActiveRenderer() != null ? zooPanel.getActiveRenderer() : zooPanel.getDirtyRegions()));
+                List<Animal> Animals = ZooFrame.this.Animals.snapshot();
                 String[] column = {"Animal", "Color", "Weight", "Hor. speed", "Ver. speed", "Eat counter"};
                 int totalEatCount = 0;
                 String[][] animalsData = new String[Animals.size()+1][6];
@@ -327,6 +335,7 @@ public class ZooFrame extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 JFrame colorFrame = new JFrame("Color");
+                List<Animal> Animals = ZooFrame.this.Animals.snapshot();
                 String[] animals = new String[Animals.size()];
                 for (int i = 0; i < Animals.size(); i++)
                     animals[i] = Animals.get(i).getClass().getSimpleName() + " - " + Animals.get(i).getColorToString();
@@ -372,19 +381,10 @@ public class ZooFrame extends JFrame {
         backupButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (caretaker.isAvailable()) {
-                    mementos.clear();
-                    Memento memento = null;
-                    for (Animal animal : Animals) {
-                        memento = new Memento(animal);
-                        mementos.add(memento);
-                    }
-                    caretaker.addMemento(mementos);
-                    if (zooPanel.getFood()!=null)
-                        caretaker.setFood(zooPanel.getFood());
-                    else caretaker.setFood(null);
-                }
-                else JOptionPane.showMessageDialog(null, "You can not create more than 3 backups");
+                checkpointer.request(() -> SwingUtilities.invokeLater( // Copied off the EDT, see Checkpointer
+                        () -> JOptionPane.showMessageDialog(null, "The backup could not be written")));
+                for (Animal animal : Animals)
+                    animal.notifyObservers(" is backed up");
             }
         });
         /*--------------------Restore--------------------*/
@@ -393,24 +393,31 @@ public class ZooFrame extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 if (!caretaker.isEmpty()) {
-                    mementos = caretaker.getMemento();
-                    if (mementos.size() != Animals.size())
-                        for (Memento memento : mementos)
-                            if (!Animals.contains(memento.getAnimal())) {
-                                Animal restoreAnimal = memento.getAnimal();
-                                restoreAnimal.setPan(zooPanel);
-                                restoreAnimal.drawObject(zooPanel.getGraphics());
-                                restoreAnimal.setResumed();
-                                Animals.add(restoreAnimal);
-                                zooPanel.addToQueue(Animals.get(Animals.size() - 1));
-                            }
-                    for (Animal animal : Animals) {
-                        try {
-                            animal.setMemento(mementos.get(Animals.indexOf(animal))); // getting index of current animal
-                        } catch (NullPointerException ignored) {}
+                    ArrayList<Memento> mementos;
+                    try {
+                        mementos = caretaker.getMemento();
+                    } catch (IOException exception) {
+                        JOptionPane.showMessageDialog(null, "The backup could not be read, it is kept: "
+                                + exception.getMessage());
+                        return;
                     }
-                    if (caretaker.getFood()!=null)
-                        zooPanel.setFood(foodType);
+                    if (mementos == null)
+                        return;
+                    for (Memento memento : mementos) {
+                        Animal restoreAnimal = Animals.get(memento.getId());
+                        if (restoreAnimal == null) { // Eaten or cleared since the backup
+                            restoreAnimal = memento.newAnimal();
+                            restoreAnimal.setPan(zooPanel);
+                            restoreAnimal.registerObserver(new Controller());
+                            Animals.add(restoreAnimal);
+                            zooPanel.addToQueue(restoreAnimal);
+                        }
+                        restoreAnimal.setMemento(memento);
+                    }
+                    foodType = caretaker.getFood();
+                    if (foodType != null)
+                        foodType.setPan(zooPanel);
+                    zooPanel.setFood(foodType);
                     repaint();
                 }
                 else JOptionPane.showMessageDialog(null, "No backups available!");
@@ -428,12 +435,70 @@ public class ZooFrame extends JFrame {
         this.setBackground(Color.CYAN);
         mainP.setBackground(Color.GRAY);
         this.add(mainP, BorderLayout.SOUTH);
+        if (System.getProperty("zoo.render", "swing").equals("active")) { // Frames from a render loop, not repaints
+            JPopupMenu.setDefaultLightWeightPopupEnabled(false); // Menus over the heavyweight canvas
+            zooPanel.setActiveRendering(Integer.getInteger("zoo.fps", 60));
+        }
         this.add(zooPanel, BorderLayout.CENTER);
-        zooPanel.setPool(new ThreadPool(10,15));
+        checkpointer.setInterval(Long.getLong("zoo.autosave", 0) * 1000); // Seconds between backups, 0 for none
+        switch (System.getProperty("zoo.threads", "engine")) { // How the animals are moved
+            case "pool" -> {
+                zooPanel.setPool(new ThreadPool(10, 15)); // An animal beyond 15 is refused, never queued
+                zooPanel.getFrameScheduler().start(75); // The passes of the animal threads
+            }
+            case "virtual" -> {
+                if (ThreadPool.hasVirtualThreads()) {
+                    zooPanel.setPool(ThreadPool.perAnimal()); // A thread per animal, no limit
+                    zooPanel.getFrameScheduler().start(75);
+                }
+                else { // Never an OS thread per animal
+                    String warning = "zoo.threads=virtual needs Java 21 or later, this is Java "
+                            + Runtime.version().feature() + ". The simulation engine moves the animals instead.";
+                    System.err.println(warning);
+                    JOptionPane.showMessageDialog(null, warning, "No virtual threads", JOptionPane.WARNING_MESSAGE);
+                    startEngine();
+                }
+            }
+            default -> startEngine(); // The engine runs the passes at the end of its ticks
+        }
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.setVisible(true);
     }
 
+    /**
+     * Move the animals by the ticks of a simulation engine, which runs the passes at the end of its ticks.
+     */
+    private void startEngine() {
+        SimulationEngine engine = new SimulationEngine(zooPanel.getWorld());
+        zooPanel.setEngine(engine);
+        engine.start();
+    }
+
+    /**
+     * The caretaker of the backups. With -Dzoo.backup.ring=MB the newest ones are kept in a memory-mapped ring
+     * of that size, at most 2047 MB, and the older ones are moved out of it to files.
+     * Otherwise each one is a file. The files go in -Dzoo.backup.dir (a temporary directory by default).
+     * @return (Caretaker) the caretaker.
+     */
+    private static Caretaker newCaretaker() {
+        int fullEvery = Integer.getInteger("zoo.backup.full", Caretaker.DEFAULT_FULL_EVERY);
+        String dir = System.getProperty("zoo.backup.dir");
+        Integer ring = Integer.getInteger("zoo.backup.ring");
+        if (ring != null) {
+            int maxMegabytes = HistoryRing.MAX_CAPACITY >> 20;
+            if (ring > maxMegabytes)
+                System.out.println("History ring of " + ring + " MB is too large, using " + maxMegabytes + " MB");
+            try {
+                return new Caretaker(new HistoryRing(dir == null ? null : Path.of(dir, "history.ring"),
+                        Math.min(ring, maxMegabytes) << 20, new BackupDirectory(dir == null ? null : Path.of(dir))),
+                        fullEvery);
+            } catch (IOException e) {
+                System.out.println("History ring not available, backing up to files: " + e.getMessage());
+            }
+        }
+        return new Caretaker(new BackupDirectory(dir == null ? null : Path.of(dir)), fullEvery);
+    }
+
     public static void main(String[] args)
     {
         new ZooFrame();
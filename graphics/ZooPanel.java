@@ -1,30 +1,38 @@
 package graphics;
 
 import animals.Animal;
-import diet.*;
-import plants.Meat;
+import animals.AnimalRegistry;
 import plants.Plant;
+import utilities.Catalog;
+import zoo.FrameScheduler;
+import zoo.RenderSnapshot;
+import zoo.SimulationEngine;
+import zoo.World;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 
 /**
  * A class of ZooPanel, required to draw all objects on the center area.
+ * The panel renders a World, the simulation itself does not need it.
  *
  * @version 1.3 09 June 2022
  * @author Ido Ben Nun, Bar Cohen
  * @see ZooFrame
  */
 public class ZooPanel extends JPanel implements Runnable {
-    protected ArrayList<Animal> Animals;
-    protected Plant food = null;
+    protected AnimalRegistry Animals;
+    private final World world;
     protected BufferedImage backgroundImage = null;
     protected Color backgroundColor;
+    private volatile BufferedImage backgroundLayer = null; // The background scaled to the panel, drawn once
     private ThreadPool pool;
+    private SimulationEngine engine = null;
+    private ActiveRenderer activeRenderer = null;
+    private final DirtyRegions dirtyRegions = new DirtyRegions();
     private static ZooPanel zooPanel = null;
 
-    public static synchronized ZooPanel getInstance(ArrayList<Animal> animals)
+    public static synchronized ZooPanel getInstance(AnimalRegistry animals)
     {
         if (zooPanel==null) {
             zooPanel = new ZooPanel(animals);
@@ -39,24 +47,123 @@ public class ZooPanel extends JPanel implements Runnable {
     @Override
     public void run() {}
 
+    /**
+     * Schedule an animal to move.
+     * If a simulation engine is set, the animal is advanced by its ticks,
+     * otherwise it runs on its own thread in the pool.
+     * @param animal
+     *          (Animal) to be scheduled.
+     * @return True if scheduled, otherwise false.
+     */
     public boolean addToQueue(Animal animal)
     {
+        if (engine != null)
+            return engine.add(animal);
         return this.pool.addToPool(animal);
     }
 
+    /**
+     * A setter of the simulation engine.
+     * @param engine
+     *          (SimulationEngine) to advance the animals, null to use the thread pool.
+     */
+    public void setEngine(SimulationEngine engine)
+    {
+        this.engine = engine;
+    }
+
+    /**
+     * Ask for a manageZoo pass and a repaint in the next frame.
+     * Requests made during the same frame share a single pass.
+     */
+    public void requestFrame() { world.requestPass(); }
+
+    /**
+     * A getter of the frame scheduler.
+     * @return (FrameScheduler) scheduler of the manageZoo passes.
+     */
+    public FrameScheduler getFrameScheduler() { return world.getFrameScheduler(); }
+
+    /**
+     * A getter of the world drawn by this panel.
+     * @return (World) bounds, animals and food of the zoo.
+     */
+    public World getWorld() { return world; }
+
+    /**
+     * A getter of the simulation engine.
+     * @return (SimulationEngine) engine, or null if the thread pool is used.
+     */
+    public SimulationEngine getEngine() { return engine; }
+
     public boolean setPool(ThreadPool pool)
     {
         this.pool = pool;
         return true;
     }
 
+    /**
+     * A getter of the thread pool.
+     * @return (ThreadPool) pool, or null if the simulation engine is used.
+     */
+    public ThreadPool getPool() { return engine != null ? null : pool; }
+
     /**
      * An easy ctor of ZooPanel.
-     * @param animalArrayList
-     *          (ArrayList<Animal>) All existing animals.
+     * @param animals
+     *          (AnimalRegistry) All existing animals.
+     */
+    private ZooPanel(AnimalRegistry animals) {
+        Animals = animals;
+        world = new World(animals, 0, 0);
+        world.setPublishing(true);
+        world.setRenderer(this::repaintDirty);
+    }
+
+    /**
+     * Repaint what changed in the last pass: where the animals and the food were and where they are now.
+     * Called on the thread that published the render snapshot, usually at the end of a pass.
+     * Falls back to a full repaint when that covers most of the panel.
+     * @param frame
+     *          (RenderSnapshot) the snapshot just published, null if none was.
+     */
+    private void repaintDirty(RenderSnapshot frame) {
+        if (frame == null) {
+            super.repaint();
+            return;
+        }
+        Rectangle dirty = dirtyRegions.update(frame, getWidth(), getHeight());
+        if (dirty != null)
+            repaint(dirty);
+    }
+
+    /**
+     * Repaint all of the panel, and ask the world to publish the zoo as it is now.
+     * The frame and the dialogs call it after changing the zoo, e.g. adding an animal or food.
+     * The snapshot is built by the simulation, not here, and its renderer call repaints the change,
+     * even while the simulation is paused.
      */
-    private ZooPanel(ArrayList<Animal> animalArrayList) {
-        Animals = animalArrayList;
+    @Override
+    public void repaint() {
+        if (world != null) // Not yet set while the JPanel is being built
+            world.requestPublish();
+        super.repaint();
+    }
+
+    /**
+     * A getter of the dirty regions of the passes.
+     * @return (DirtyRegions) repaints made after the passes.
+     */
+    public DirtyRegions getDirtyRegions() { return dirtyRegions; }
+
+    /**
+     * Resizing the panel resizes the world it draws.
+     */
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        super.setBounds(x, y, width, height);
+        if (world != null) // Not yet set while the JPanel is being built
+            world.setSize(width, height);
     }
 
     /**
@@ -64,17 +171,16 @@ public class ZooPanel extends JPanel implements Runnable {
      * @param foodType
      *      (Plant) Cabbage, Lettuce, or Meat object.
      */
-    public synchronized boolean setFood(Plant foodType){
-       this.food = foodType;
-       return true;
+    public boolean setFood(Plant foodType){
+       return world.setFood(foodType);
     }
 
     /**
      * A getter of food to be drawn.
      * @return (Plant) Cabbage, Lettuce, or Meat object.
      */
-    public synchronized Plant getFood(){
-        return this.food;
+    public Plant getFood(){
+        return world.getFood();
     }
 
     /**
@@ -85,7 +191,10 @@ public class ZooPanel extends JPanel implements Runnable {
     public void setBackgroundImage(BufferedImage backgroundImage) {
         if (getBackgroundColor() != null)
             setBackgroundColor(null);
-        this.backgroundImage = backgroundImage;
+        synchronized (this) {
+            this.backgroundImage = backgroundImage;
+            backgroundLayer = null;
+        }
         this.repaint();
     }
 
@@ -113,10 +222,24 @@ public class ZooPanel extends JPanel implements Runnable {
     public void setBackgroundColor(Color backgroundColor) {
         if (getBackgroundImage() != null)
             setBackgroundImage(null);
-        this.backgroundColor = backgroundColor;
+        synchronized (this) {
+            this.backgroundColor = backgroundColor;
+            backgroundLayer = null;
+        }
         this.repaint();
     }
 
+    /**
+     * The panel color is the background when there is no other.
+     * @param bg
+     *          (Color) the panel color.
+     */
+    @Override
+    public void setBackground(Color bg) {
+        super.setBackground(bg);
+        backgroundLayer = null;
+    }
+
     /**
      * Calls the UI delegate's paint method, if the UI delegate is non-null.
      * We use it to paint the components.
@@ -124,66 +247,101 @@ public class ZooPanel extends JPanel implements Runnable {
      *      Provided Graphics.
      */
     public void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        if (getBackgroundImage() != null) // Check if there is a background image
-            g.drawImage(getBackgroundImage(),0,0,getWidth(),getHeight(), this);
-        else if (getBackgroundColor() != null) { // Check if there is a background color
-            g.setColor(getBackgroundColor());
-            g.fillRect(0,0,getWidth(),getHeight()); }
-        if (!Animals.isEmpty()) {
-            for (Animal animal : Animals) {
-                animal.drawObject(g);
-            }
+        if (activeRenderer == null) // The background layer covers the whole panel
+            render(g, getWidth(), getHeight());
+        else super.paintComponent(g); // The render loop draws the zoo
+    }
+
+    /**
+     * Draw the zoo: the background, the animals, then the food.
+     * Only the newest render snapshot of the world is read, never the animals themselves,
+     * so drawing takes no lock of the simulation and never sees an animal half way through a move.
+     * Shared by paintComponent and the active render loop.
+     * @param g
+     *      (Graphics) where to draw.
+     * @param width
+     *      (Integer) width of the drawn area.
+     * @param height
+     *      (Integer) height of the drawn area.
+     */
+    void render(Graphics g, int width, int height) {
+        g.drawImage(getBackgroundLayer(width, height), 0, 0, null); // An unscaled blit
+        RenderSnapshot frame = world.takeRenderSnapshot(); // Never changes while it is drawn
+        Rectangle clip = g.getClipBounds(); // Only the dirty region on a partial repaint
+        for (int i = 0; i < frame.size(); i++) {
+            int x = frame.getLeft(i), y = frame.getTop(i), w = frame.getWidth(i), h = frame.getHeight(i);
+            if (clip == null || clip.intersects(x, y, w, h))
+                g.drawImage(SpriteAtlas.get(SpriteCache.getAnimal(frame.getSprite(i), frame.getDirection(i)), w, h), x, y, null);
+        }
+        if (frame.getFood() >= 0) {
+            int size = RenderSnapshot.FOOD_SIZE;
+            if (clip == null || clip.intersects(frame.getFoodX(), frame.getFoodY(), size, size))
+                g.drawImage(SpriteAtlas.get(SpriteCache.get(Catalog.FOOD_FILES[frame.getFood()]), size, size),
+                        frame.getFoodX(), frame.getFoodY(), null);
         }
-        if (getFood() != null) {
-            food.drawObject(g); }
     }
 
     /**
-     * This function is called after each operation made in the zoo.
-     * Its purpose is to handle changes and perform actions.
-     */
-    public synchronized void manageZoo() {
-        if (getFood() != null)
-        {
-            for (Animal animal : this.Animals) {
-                if (Math.abs(animal.getLocation().getX() - (getFood().getLocation().getX())) <= animal.getEAT_DISTANCE()
-                        && Math.abs(animal.getLocation().getY() - (getFood().getLocation().getY())) <= animal.getEAT_DISTANCE())
-                    if (animal.getDiet().canEat(getFood().getFoodType())) {
-                        animal.eat(getFood());
-                        animal.eatInc();
-                        getFood().setPan(null);
-                        setFood(null);
-                        SwingUtilities.invokeLater(new Runnable() {
-                            public void run() {
-                                repaint();
-                            }
-                        });
-                    }
+     * A getter of the background drawn at a size: the background image scaled to it, or a fill of the background color.
+     * It is drawn once into an image compatible with the screen, and drawn again only when the size
+     * or the background changes.
+     * @param width
+     *      (Integer) width of the layer.
+     * @param height
+     *      (Integer) height of the layer.
+     * @return (BufferedImage) the background layer.
+     */
+    BufferedImage getBackgroundLayer(int width, int height) {
+        BufferedImage layer = backgroundLayer;
+        if (layer != null && layer.getWidth() == width && layer.getHeight() == height)
+            return layer;
+        synchronized (this) { // The EDT and the render loop may both ask for it
+            BufferedImage image = getBackgroundImage();
+            Color color = getBackgroundColor() != null ? getBackgroundColor() : getBackground();
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            layer = gc != null ? gc.createCompatibleImage(Math.max(1, width), Math.max(1, height))
+                    : new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = layer.createGraphics();
+            if (image != null) { // Scaled once, so it may as well be smooth
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(image, 0, 0, width, height, null);
             }
-        }
-                for (int i = 0; i < Animals.size(); i++)
-                    for (int j = 0; j < Animals.size(); j++) {
-                        if (i != j) {
-                            if (Animals.get(i).getDiet() instanceof Carnivore || Animals.get(i).getDiet() instanceof Omnivore) {
-                                if (((Animals.get(j).getDiet() instanceof Herbivore) || (Animals.get(j).getDiet() instanceof Omnivore))) {
-                                    if (Animals.get(i).getWeight() >= 2 * Animals.get(j).getWeight()) {
-                                        if (Animals.get(i).getLocation().calcDistance(Animals.get(j).getLocation()) < Animals.get(j).getSize()) {
-                                            Animals.get(i).eat(Animals.get(j));
-                                            Animals.get(i).eatInc();
-                                            Animals.get(j).stop();
-                                            Animals.remove(j);
-                                            SwingUtilities.invokeLater(new Runnable() {
-                                                public void run() {
-                                                    repaint();
-                                                }
-                                            });
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                repaint();
+            else {
+                g.setColor(color);
+                g.fillRect(0, 0, width, height);
             }
-        }
\ No newline at end of file
+            g.dispose();
+            return backgroundLayer = layer;
+        }
+    }
+
+    /**
+     * Switch to active rendering: a render loop of its own draws the zoo at a target frame rate
+     * and flips the pages of a BufferStrategy, and the world no longer asks for a repaint after each pass.
+     * Must be called on the EDT, before the panel is shown.
+     * @param fps
+     *      (Integer) target frames per second.
+     * @return (ActiveRenderer) the render loop, started once the panel is shown.
+     */
+    public ActiveRenderer setActiveRendering(int fps) {
+        if (activeRenderer == null) {
+            activeRenderer = new ActiveRenderer(this, fps);
+            setLayout(new BorderLayout());
+            add(activeRenderer, BorderLayout.CENTER);
+            world.setRenderer(null); // The simulation only publishes its state
+        }
+        return activeRenderer;
+    }
+
+    /**
+     * A getter of the active render loop.
+     * @return (ActiveRenderer) render loop, or null if the panel is repainted by Swing.
+     */
+    public ActiveRenderer getActiveRenderer() { return activeRenderer; }
+
+    /**
+     * This function is called after each operation made in the zoo.
+     * Its purpose is to handle changes and perform actions, then repaint.
+     */
+    public void manageZoo() { world.manage(); }
+}
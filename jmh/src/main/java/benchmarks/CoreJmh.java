@@ -0,0 +1,90 @@
+package benchmarks;
+
+import animals.Animal;
+import animals.Bear;
+import animals.Elephant;
+import animals.Lion;
+import animals.Memento;
+import diet.Carnivore;
+import diet.Herbivore;
+import diet.IDiet;
+import diet.Omnivore;
+import food.IEdible;
+import mobility.Point;
+import org.openjdk.jmh.annotations.*;
+import plants.Cabbage;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the small operations of the core: distances, diets and mementos.
+ * The same work as Point.calcDistance, IDiet.eat and Memento of ZooBenchmarks.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see ZooBenchmarks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CoreJmh {
+
+    /**
+     * The diet of IDiet.eat, with an eater and a food it can eat.
+     */
+    @Param({"Carnivore", "Omnivore", "Herbivore"})
+    public String diet;
+
+    private final Point[] points = new Point[1024];
+    private IDiet eating;
+    private Animal eater;
+    private IEdible food;
+    private Animal elephant;
+    private Memento memento;
+
+    @Setup
+    public void setUp() {
+        ZooBenchmarks.setUp();
+        Random rand = new Random(1);
+        for (int i = 0; i < points.length; i++)
+            points[i] = new Point(rand.nextInt(800), rand.nextInt(600));
+        ZooBenchmarks.populate(0);
+        Animal lion = ZooBenchmarks.add(new Lion(100, 1, 1, "Natural", 400));
+        Animal bear = ZooBenchmarks.add(new Bear(100, 1, 1, "Natural", 300));
+        elephant = ZooBenchmarks.add(new Elephant(100, 1, 1, "Natural", 500));
+        switch (diet) {
+            case "Carnivore" -> { eating = new Carnivore(); eater = lion; food = bear; }
+            case "Omnivore" -> { eating = new Omnivore(); eater = bear; food = elephant; }
+            default -> { eating = new Herbivore(); eater = elephant; food = Cabbage.getInstance(); }
+        }
+        memento = new Memento(elephant);
+    }
+
+    /**
+     * The distances between 1024 neighbouring points.
+     * @return (Double) their sum.
+     */
+    @Benchmark
+    public double calcDistance() {
+        double total = 0;
+        for (int i = 0; i < points.length; i++)
+            total += points[i].calcDistance(points[(i + 1) & 1023]);
+        return total;
+    }
+
+    @Benchmark
+    public double eat() { return eating.eat(eater, food); }
+
+    @Benchmark
+    public Memento mementoCapture() { return new Memento(elephant); }
+
+    @Benchmark
+    public int mementoRestore() {
+        elephant.setMemento(memento);
+        return elephant.getEatCount();
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import animals.Animal;
+import graphics.ZooPanel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of a zoo pass and of the movement, at several populations.
+ * The same work as manageZoo and Animal.update of ZooBenchmarks, on the same zoos.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see ZooBenchmarks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SimulationJmh {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int animals;
+
+    private ZooPanel pan;
+    private Animal[] all;
+
+    @Setup
+    public void setUp() {
+        pan = ZooBenchmarks.setUp();
+        all = ZooBenchmarks.populate(animals).snapshot().toArray(new Animal[0]);
+    }
+
+    @Benchmark
+    public void manageZoo() { pan.manageZoo(); }
+
+    /**
+     * One movement step of every animal.
+     * @return (Integer) X of the first animal, so the steps are not dropped.
+     */
+    @Benchmark
+    public int update() {
+        for (Animal animal : all)
+            animal.update(Animal.SPEED / 1000.0);
+        return all[0].getLocation().getX();
+    }
+}
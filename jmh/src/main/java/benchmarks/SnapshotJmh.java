@@ -0,0 +1,58 @@
+package benchmarks;
+
+import animals.AnimalRegistry;
+import animals.Snapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the binary snapshots of a zoo of 100k animals.
+ * The same work as Snapshot.capture, write and read of ZooBenchmarks.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see ZooBenchmarks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SnapshotJmh {
+
+    @Param({"100000"})
+    public int animals;
+
+    private AnimalRegistry registry;
+    private Snapshot snapshot;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        ZooBenchmarks.setUp();
+        registry = ZooBenchmarks.populate(animals);
+        snapshot = Snapshot.capture(registry, null);
+        file = Files.createTempFile("zoo-benchmark", ".zoo");
+        snapshot.write(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException { Files.deleteIfExists(file); }
+
+    @Benchmark
+    public Snapshot capture() { return Snapshot.capture(registry, null); }
+
+    @Benchmark
+    public int write() throws IOException {
+        snapshot.write(file);
+        return snapshot.getBytes();
+    }
+
+    @Benchmark
+    public Snapshot read() throws IOException { return Snapshot.read(file); }
+}
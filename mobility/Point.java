@@ -9,6 +9,10 @@ package mobility;
  */
 public class Point implements Ilocatable{
 	private static final int MAX_X = 800, MAX_Y = 600, MIN_X = 0, MIN_Y = 0;
+	/**
+	 * Flags returned by bounce, telling which axis hit a bound.
+	 */
+	public static final int BOUNCE_X = 1, BOUNCE_Y = 2;
 	private int x;
 	private int y;
 	private Point location;
@@ -94,6 +98,68 @@ public class Point implements Ilocatable{
 			return true;
 	}
 
+	/**
+	 * Move this point in place by a delta.
+	 * Used in the movement hot path instead of allocating a new Point each step.
+	 *
+	 * @param dx
+	 * 			(Integer) delta of X.
+	 * @param dy
+	 * 			(Integer) delta of Y.
+	 */
+	public void translate(int dx, int dy) {
+		this.x += dx;
+		this.y += dy;
+	}
+
+	/**
+	 * Check this point against the bounds of an area of the given size.
+	 * A point on a zero coordinate is nudged to 1 so it leaves the edge on the next step.
+	 * The caller reflects its direction on the axes that hit a bound.
+	 *
+	 * @param width
+	 * 			(Integer) width of the area.
+	 * @param height
+	 * 			(Integer) height of the area.
+	 * @return (Integer) BOUNCE_X and/or BOUNCE_Y flags, 0 if no bound was hit.
+	 */
+	public int bounce(int width, int height) {
+		int flags = bounce(x, y, width, height);
+		if ((flags & BOUNCE_X) != 0) x = offEdge(x);
+		if ((flags & BOUNCE_Y) != 0) y = offEdge(y);
+		return flags;
+	}
+
+	/**
+	 * The bounds rule of bounce, for a location kept without a Point (see animals.AnimalStore).
+	 * The caller moves each coordinate that hit a bound with offEdge, then reflects its direction.
+	 *
+	 * @param x
+	 * 			(Integer) X of the location.
+	 * @param y
+	 * 			(Integer) Y of the location.
+	 * @param width
+	 * 			(Integer) width of the area.
+	 * @param height
+	 * 			(Integer) height of the area.
+	 * @return (Integer) BOUNCE_X and/or BOUNCE_Y flags, 0 if no bound was hit.
+	 */
+	public static int bounce(int x, int y, int width, int height) {
+		int flags = 0;
+		if (x >= width || x <= 0) flags |= BOUNCE_X;
+		if (y >= height || y <= 0) flags |= BOUNCE_Y;
+		return flags;
+	}
+
+	/**
+	 * A coordinate that hit a bound, nudged off a zero edge.
+	 *
+	 * @param v
+	 * 			(Integer) the coordinate.
+	 * @return 1 if v is 0, otherwise v.
+	 */
+	public static int offEdge(int v) { return v == 0 ? 1 : v; }
+
 	/**
 	 * A boolean function to check if the Point object is valid.
 	 *
@@ -165,7 +231,24 @@ public class Point implements Ilocatable{
 	 * @return The result of the calculation.
 	 */
 	public double calcDistance(Point other){
-		return Math.sqrt((Math.pow(x-other.getX(),2))+(Math.pow(y-other.getY(),2)));
+		return distance(x, y, other.getX(), other.getY());
+	}
+
+	/**
+	 * The distance between two locations, the same as calcDistance without the points.
+	 *
+	 * @param x1
+	 * 			(Integer) X of the first location.
+	 * @param y1
+	 * 			(Integer) Y of the first location.
+	 * @param x2
+	 * 			(Integer) X of the second location.
+	 * @param y2
+	 * 			(Integer) Y of the second location.
+	 * @return The result of the calculation.
+	 */
+	public static double distance(int x1, int y1, int x2, int y2) {
+		return Math.sqrt((Math.pow(x1-x2,2))+(Math.pow(y1-y2,2)));
 	}
 
 	/**
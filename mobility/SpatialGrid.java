@@ -0,0 +1,164 @@
+package mobility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A uniform grid spatial index keyed on Point locations.
+ * The plane is split into square cells, each item is kept in the cell of its location,
+ * so a range query only scans the cells that overlap the range.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Point
+ * @param <T> Type of the indexed items.
+ */
+public class SpatialGrid<T> {
+
+    /**
+     * Default cell side, about the size of an average animal on the panel.
+     */
+    public static final int DEFAULT_CELL_SIZE = 100;
+
+    private final int cellSize;
+    private final HashMap<Long, ArrayList<T>> cells = new HashMap<>();
+    private final HashMap<T, Long> cellOf = new HashMap<>();
+
+    /**
+     * A ctor of grid with the default cell size.
+     */
+    public SpatialGrid() { this(DEFAULT_CELL_SIZE); }
+
+    /**
+     * A ctor of grid.
+     * @param cellSize (Integer) Side of a cell in pixels.
+     */
+    public SpatialGrid(int cellSize) {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive");
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * A getter of cell size.
+     * @return (Integer) side of a cell.
+     */
+    public int getCellSize() { return cellSize; }
+
+    /**
+     * A getter of the number of indexed items.
+     * @return (Integer) items count.
+     */
+    public int size() { return cellOf.size(); }
+
+    /**
+     * Add an item or move it to the cell of its new location.
+     * Nothing is done if the item did not leave its cell.
+     * @param item (T) item to update.
+     * @param location (Point) current location of the item.
+     */
+    public void update(T item, Point location) { update(item, location.getX(), location.getY()); }
+
+    /**
+     * Add an item or move it to the cell of its new location.
+     * @param item (T) item to update.
+     * @param x (Integer) current X of the item.
+     * @param y (Integer) current Y of the item.
+     */
+    public void update(T item, int x, int y) {
+        long key = key(cell(x), cell(y));
+        Long old = cellOf.put(item, key);
+        if (old != null) {
+            if (old == key)
+                return;
+            removeFromCell(old, item);
+        }
+        cells.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+    }
+
+    /**
+     * Remove an item from the grid.
+     * @param item (T) item to remove.
+     * @return True if the item was indexed, otherwise false.
+     */
+    public boolean remove(T item) {
+        Long old = cellOf.remove(item);
+        if (old == null)
+            return false;
+        removeFromCell(old, item);
+        return true;
+    }
+
+    /**
+     * Check if an item is indexed.
+     * @param item (T) item to look for.
+     * @return True if indexed, otherwise false.
+     */
+    public boolean contains(T item) { return cellOf.containsKey(item); }
+
+    /**
+     * Remove all items.
+     */
+    public void clear() {
+        cells.clear();
+        cellOf.clear();
+    }
+
+    /**
+     * Collect the items of all cells overlapping the square around a center.
+     * The result is a superset of the items in range, the caller checks the exact distance.
+     * Cells are scanned row by row, so the order is the same for the same grid content.
+     * @param center (Point) center of the range.
+     * @param range (Integer) half side of the square.
+     * @param out (List) collected items are added to it.
+     */
+    public void query(Point center, int range, List<T> out) { query(center.getX(), center.getY(), range, out); }
+
+    /**
+     * Collect the items of all cells overlapping the square around a center, see query(Point, int, List).
+     * @param x (Integer) X of the center.
+     * @param y (Integer) Y of the center.
+     * @param range (Integer) half side of the square.
+     * @param out (List) collected items are added to it.
+     */
+    public void query(int x, int y, int range, List<T> out) {
+        int minX = cell(x - range), maxX = cell(x + range);
+        int minY = cell(y - range), maxY = cell(y + range);
+        for (int cy = minY; cy <= maxY; cy++)
+            for (int cx = minX; cx <= maxX; cx++) {
+                ArrayList<T> bucket = cells.get(key(cx, cy));
+                if (bucket != null)
+                    out.addAll(bucket);
+            }
+    }
+
+    /**
+     * Collect the contents of every non empty cell.
+     * Each cell is returned as a read-only view, the grid must not change while they are used.
+     * @return (List) one list of items per cell.
+     */
+    public List<List<T>> buckets() {
+        ArrayList<List<T>> out = new ArrayList<>(cells.size());
+        for (ArrayList<T> bucket : cells.values())
+            out.add(Collections.unmodifiableList(bucket));
+        return out;
+    }
+
+    private void removeFromCell(long key, T item) {
+        ArrayList<T> bucket = cells.get(key);
+        bucket.remove(item);
+        if (bucket.isEmpty())
+            cells.remove(key);
+    }
+
+    private int cell(int coordinate) { return Math.floorDiv(coordinate, cellSize); }
+
+    /**
+     * A unique key of a cell. The packed coordinates are multiplied by an odd constant,
+     * which keeps them unique and spreads them, otherwise Long.hashCode (cx ^ cy) puts
+     * whole diagonals of cells in the same bucket of the map.
+     */
+    private static long key(int cx, int cy) { return (((long) cx << 32) | (cy & 0xffffffffL)) * 0x9E3779B97F4A7C15L; }
+}
@@ -2,19 +2,17 @@ package plants;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import food.IEdible;
 import graphics.IDrawable;
+import graphics.SpriteAtlas;
+import graphics.SpriteCache;
 import graphics.ZooPanel;
 import mobility.Ilocatable;
 import mobility.Point;
 import utilities.MessageUtility;
 
-import javax.imageio.ImageIO;
-
 /**
  * @author baroh
  *
@@ -30,15 +28,23 @@ public abstract class Plant implements IEdible, Ilocatable ,IDrawable {
 	/**
 	 * A given ctor of plant object.
 	 * We will prefer to use inheritance classes ctors.
+	 * The plant is at (0,0) until it is put in a world, which draws its height and weight (see World.setFood).
 	 */
 	public Plant() {
-		Random rand = new Random();
+		this.location = new Point(0, 0);
+		MessageUtility.logConstractor("Plant", "Plant");
+	}
+
+	/**
+	 * Pick a new random location, height and weight.
+	 * @param rand (RandomGenerator) generator to draw from, the generator of a seeded world.
+	 */
+	public void randomize(RandomGenerator rand) {
 		int x = rand.nextInt(30);
 		int y = rand.nextInt(12);
 		this.location = new Point(x, y);
 		this.height = rand.nextInt(30);
 		this.weight = rand.nextInt(12);
-		MessageUtility.logConstractor("Plant", "Plant");
 	}
 
 	/**
@@ -46,31 +52,12 @@ public abstract class Plant implements IEdible, Ilocatable ,IDrawable {
 	 * @param nm
 	 * 			(String) part-of-string of file name.
 	 */
-	public void loadImages(String nm) {    // Read image file
+	public void loadImages(String nm) {    // Get image from the sprite cache
 		switch (nm) {
-			case "Lettuce":
-				try {
-					img = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/lettuce.png"));
-				} catch (IOException ex) {
-					System.out.println("Cannot load lettuce");
-				}
-				break;
-			case "Cabbage":
-				try {
-					img = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/cabbage.png"));
-				} catch (IOException ex) {
-					System.out.println("Cannot load image");
-				}
-				break;
-			case "Meat":
-				try {
-					img = ImageIO.read(new File(IDrawable.PICTURE_PATH + "/meat.gif"));
-				} catch (IOException ex) {
-					System.out.println("Cannot load image");
-				}
-				break;
-			default:
-				break;
+			case "Lettuce" -> img = SpriteCache.get("lettuce.png");
+			case "Cabbage" -> img = SpriteCache.get("cabbage.png");
+			case "Meat" -> img = SpriteCache.get("meat.gif");
+			default -> {}
 		}
 	}
 
@@ -91,7 +78,13 @@ public abstract class Plant implements IEdible, Ilocatable ,IDrawable {
 	 * @param g
 	 * 			Graphics of pan.
 	 */
-	public void drawObject (Graphics g) { g.drawImage(img, getLocation().getX(), getLocation().getY(), 50, 50, pan); }
+	public void drawObject (Graphics g) { g.drawImage(SpriteAtlas.get(img, 50, 50), getLocation().getX(), getLocation().getY(), pan); }
+
+	/**
+	 * The area drawn by drawObject.
+	 * @return (Rectangle) bounds of the plant on the panel.
+	 */
+	public Rectangle getBounds() { return new Rectangle(getLocation().getX(), getLocation().getY(), 50, 50); }
 
 	/**
 	 * A simple getter of plant object color.
@@ -151,13 +144,11 @@ public abstract class Plant implements IEdible, Ilocatable ,IDrawable {
 	@Override
 	public boolean setLocation(Point newLocation) {
 		boolean isSuccess = Point.checkBoundaries(newLocation);
-		if (isSuccess) {
-			MessageUtility.logSetter(getClass().getSimpleName(), "setLocation", new String(newLocation.getX() + "," + newLocation.getY()), true);
+		if (MessageUtility.isEnabled(isSuccess ? MessageUtility.Level.DEBUG : MessageUtility.Level.WARN))
+			MessageUtility.logSetter(getClass().getSimpleName(), "setLocation", newLocation.getX() + "," + newLocation.getY(), isSuccess);
+		if (isSuccess)
 			this.location = newLocation;
-			return true;
-		}
-		MessageUtility.logSetter(this.getClass().getSimpleName(), "setLocation", new String(newLocation.getX() + "," + newLocation.getY()), false);
-		return false;
+		return isSuccess;
 	}
 
 	/**
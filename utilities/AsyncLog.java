@@ -0,0 +1,167 @@
+package utilities;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring buffer of log records with a single writer thread.
+ * Callers only copy the raw arguments into a pre-allocated slot, never block and never touch the console;
+ * the message string is built and printed later by the writer thread.
+ * Values that may change before then are turned into strings by the caller, the rest are kept as they are.
+ * The writer sleeps until a record is put in an empty ring.
+ * When the ring is full the record is dropped and counted, the count is printed by the next flush.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see MessageUtility
+ */
+class AsyncLog implements Runnable {
+
+    /**
+     * The formats of the records, one per MessageUtility function.
+     */
+    enum Kind { BOOLEAN, CONSTRUCTOR, GETTER, SETTER, SOUND }
+
+    /**
+     * A slot of the ring. The sequence tells whose turn it is:
+     * equal to the claim position when free, position + 1 once written.
+     */
+    private static final class Slot {
+        volatile long sequence;
+        Kind kind;
+        String name, funcName;
+        Object value;
+        boolean isSuccess;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Next position to claim
+    private volatile long head = 0; // Next position to print, written only by the writer
+    private final AtomicLong dropped = new AtomicLong();
+    private long reported = 0; // Dropped records already reported, written only by the writer
+    private final Object printLock = new Object();
+    private final Thread writer;
+
+    /**
+     * A ctor of the log, starts the writer thread.
+     * Records are printed to System.out (successful ones) and System.err (failed ones).
+     * @param capacity (Integer) number of slots, rounded up to a power of two.
+     */
+    AsyncLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+        writer = new Thread(this, "MessageUtility");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "MessageUtility-flush"));
+    }
+
+    /**
+     * Put a record in the ring.
+     * @return True if queued, false if the ring was full and the record was dropped.
+     */
+    boolean offer(Kind kind, String name, String funcName, Object value, boolean isSuccess) {
+        long pos = tail.get();
+        while (true) {
+            Slot slot = slots[(int) (pos & mask)];
+            long diff = slot.sequence - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slot.kind = kind;
+                    slot.name = name;
+                    slot.funcName = funcName;
+                    slot.value = frozen(value);
+                    slot.isSuccess = isSuccess;
+                    slot.sequence = pos + 1; // Publish
+                    if (head == pos) // The ring was empty, the writer may be asleep
+                        LockSupport.unpark(writer);
+                    return true;
+                }
+                pos = tail.get();
+            }
+            else if (diff < 0) { // The writer did not free this slot yet
+                dropped.incrementAndGet();
+                return false;
+            }
+            else pos = tail.get();
+        }
+    }
+
+    /**
+     * The value as it is now: immutable values as they are, any other value as its string.
+     */
+    private static Object frozen(Object value) {
+        if (value == null || value instanceof String || value instanceof Integer || value instanceof Double
+                || value instanceof Long || value instanceof Float || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum<?>)
+            return value;
+        return String.valueOf(value); // E.g. a Point or a collection, printed as it was when logged
+    }
+
+    /**
+     * Print every record queued so far, called by the writer thread and on shutdown.
+     */
+    void flush() {
+        synchronized (printLock) {
+            long pos = head;
+            while (true) {
+                Slot slot = slots[(int) (pos & mask)];
+                if (slot.sequence != pos + 1)
+                    break;
+                print(slot);
+                slot.value = null;
+                slot.sequence = pos + slots.length; // Free for the next lap
+                head = ++pos;
+            }
+            reportDropped();
+            System.out.flush();
+            System.err.flush();
+        }
+    }
+
+    /**
+     * A getter of the number of records dropped since the start.
+     * @return (Long) dropped count.
+     */
+    long getDropped() { return dropped.get(); }
+
+    /**
+     * The writer loop, prints whatever is queued and parks until a record is put in the empty ring.
+     * A record published after the last flush saw it unparks the writer, so the park returns at once.
+     */
+    @Override
+    public void run() {
+        while (true) {
+            flush();
+            LockSupport.park(this);
+        }
+    }
+
+    private void reportDropped() {
+        long lost = dropped.get() - reported;
+        if (lost > 0) {
+            reported += lost;
+            System.err.println("[!]MessageUtility:  \t" + lost + " messages dropped, the log buffer was full");
+        }
+    }
+
+    private void print(Slot slot) {
+        PrintStream out = System.out, err = System.err;
+        switch (slot.kind) {
+            case BOOLEAN -> (slot.isSuccess ? out : err).println(
+                    "[b]" + slot.name + ":  \t" + slot.funcName + "(" + slot.value + ") => " + slot.isSuccess);
+            case CONSTRUCTOR -> out.println("[+]new " + slot.funcName + "\tname: " + slot.name);
+            case GETTER -> out.println("[g]" + slot.name + ":  \t" + slot.funcName + "() => " + slot.value);
+            case SETTER -> (slot.isSuccess ? out : err).println(
+                    "[s]" + slot.name + ":  \t" + slot.funcName + "(" + slot.value + ") => " + slot.isSuccess);
+            case SOUND -> out.println("[!]" + slot.name + ":  \t" + slot.funcName);
+        }
+    }
+}
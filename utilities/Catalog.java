@@ -0,0 +1,53 @@
+package utilities;
+
+/**
+ * The kinds of things in a zoo: the species and colors of the animals and the kinds of food.
+ * One table shared by the sprites, the render snapshots, the binary snapshots and the event logs.
+ * The index of a kind is its code in all of them, so a kind is only ever added at the end of its table.
+ * The file tables give the sprite file of each kind, in the same order.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ */
+public final class Catalog {
+
+    /**
+     * Animal species, the simple names of their classes.
+     */
+    public static final String[] SPECIES = {"Lion", "Bear", "Elephant", "Giraffe", "Turtle"};
+    /**
+     * File prefixes of the species sprites.
+     */
+    public static final String[] SPECIES_FILES = {"lio", "bea", "elf", "grf", "trt"};
+    /**
+     * Animal colors.
+     */
+    public static final String[] COLORS = {"Natural", "Blue", "Red"};
+    /**
+     * File parts of the color sprites.
+     */
+    public static final String[] COLOR_FILES = {"n", "b", "r"};
+    /**
+     * Kinds of food, the simple names of their classes.
+     */
+    public static final String[] FOODS = {"Lettuce", "Cabbage", "Meat"};
+    /**
+     * File names of the food sprites.
+     */
+    public static final String[] FOOD_FILES = {"lettuce.png", "cabbage.png", "meat.gif"};
+
+    private Catalog() {}
+
+    /**
+     * Find a kind in one of the tables.
+     * @param table (String[]) e.g. SPECIES.
+     * @param name (String) the kind.
+     * @return (Integer) its index, or -1 if it is not in the table.
+     */
+    public static int indexOf(String[] table, String name) {
+        for (int i = 0; i < table.length; i++)
+            if (table[i].equals(name))
+                return i;
+        return -1;
+    }
+}
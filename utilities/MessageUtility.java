@@ -2,12 +2,84 @@ package utilities;
 
 /**
  * A set of Logging functions to be used in appropriate classes
+ * Messages are written by a background thread (see AsyncLog), so logging never blocks on the console.
+ * Messages below the current level are skipped before any string is built.
+ * The level can be given with -Dzoo.log.level=DEBUG|INFO|WARN|OFF, the default is DEBUG (everything).
  * 
  * @author baroh
  *
  */
 public class MessageUtility {
 
+	/**
+	 * Log levels, getters and successful setters are DEBUG,
+	 * constructors and sounds are INFO, failed setters are WARN.
+	 */
+	public enum Level { DEBUG, INFO, WARN, OFF }
+
+	private static final int BUFFER_SIZE = 8192;
+	private static volatile Level level = parseLevel(System.getProperty("zoo.log.level", "DEBUG"));
+	private static AsyncLog log = null;
+
+	/**
+	 * Read the level given with -Dzoo.log.level, a mistyped one is warned about and DEBUG is used.
+	 * @param name
+	 *            - Name of the level, in any case
+	 * @return The level, DEBUG if there is no such level
+	 */
+	private static Level parseLevel(String name) {
+		try {
+			return Level.valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			System.err.println("[!]MessageUtility:  \tUnknown zoo.log.level " + name + ", using DEBUG");
+			return Level.DEBUG;
+		}
+	}
+
+	/**
+	 * A setter of the log level.
+	 * @param level
+	 *            - Lowest level to be written
+	 */
+	public static void setLevel(Level level) { MessageUtility.level = level; }
+
+	/**
+	 * A getter of the log level.
+	 * @return Lowest level to be written
+	 */
+	public static Level getLevel() { return level; }
+
+	/**
+	 * The fast path of every function, checked before building anything.
+	 * @param messageLevel
+	 *            - Level of the message
+	 * @return true if messages of this level are written
+	 */
+	public static boolean isEnabled(Level messageLevel) { return messageLevel.compareTo(level) >= 0; }
+
+	/**
+	 * Write all the queued messages now.
+	 */
+	public static void flush() { log().flush(); }
+
+	/**
+	 * A getter of the number of messages dropped because the buffer was full.
+	 * @return dropped count
+	 */
+	public static long getDropped() { return log == null ? 0 : log.getDropped(); }
+
+	private static AsyncLog log() {
+		AsyncLog l = log;
+		if (l == null) {
+			synchronized (MessageUtility.class) {
+				if (log == null)
+					log = new AsyncLog(BUFFER_SIZE);
+				l = log;
+			}
+		}
+		return l;
+	}
+
 	/**
 	 * Logs Boolean function calls.
 	 * 
@@ -21,12 +93,8 @@ public class MessageUtility {
 	 *            - Result of boolean function
 	 */
 	public static void logBooleanFunction(String name, String funcName, Object value, boolean isSuccess) {
-		String str = "[b]" + name + ":  \t" + funcName + "(" + value + ") => " + isSuccess;
-		if (isSuccess) {
-			System.out.println(str);
-		} else {
-			System.err.println(str);
-		}
+		if (isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			log().offer(AsyncLog.Kind.BOOLEAN, name, funcName, value, isSuccess);
 	}
 
 	/**
@@ -39,8 +107,8 @@ public class MessageUtility {
 	 *            - Name of the Animal
 	 */
 	public static void logConstractor(String className, String name) {
-		String str = "[+]new " + className + "\tname: " + name;
-		System.out.println(str);
+		if (isEnabled(Level.INFO))
+			log().offer(AsyncLog.Kind.CONSTRUCTOR, name, className, null, true);
 	}
 
 	/**
@@ -52,8 +120,26 @@ public class MessageUtility {
 	 *            - Returned value
 	 */
 	public static void logGetter(String name, String funcName, Object value) {
-		String str = "[g]" + name + ":  \t" + funcName + "() => " + value;
-		System.out.println(str);
+		if (isEnabled(Level.DEBUG))
+			log().offer(AsyncLog.Kind.GETTER, name, funcName, value, true);
+	}
+
+	/**
+	 * Logs a getter of an int, boxed only if the message is written.
+	 * @see #logGetter(String, String, Object)
+	 */
+	public static void logGetter(String name, String funcName, int value) {
+		if (isEnabled(Level.DEBUG))
+			log().offer(AsyncLog.Kind.GETTER, name, funcName, value, true);
+	}
+
+	/**
+	 * Logs a getter of a double, boxed only if the message is written.
+	 * @see #logGetter(String, String, Object)
+	 */
+	public static void logGetter(String name, String funcName, double value) {
+		if (isEnabled(Level.DEBUG))
+			log().offer(AsyncLog.Kind.GETTER, name, funcName, value, true);
 	}
 
 	/**
@@ -67,17 +153,36 @@ public class MessageUtility {
 	 *            - Did the assignment take place
 	 */
 	public static void logSetter(String name, String funcName, Object value, boolean isSuccess) {
-		String str = "[s]" + name + ":  \t" + funcName + "(" + value + ") => " + isSuccess;
-		if (isSuccess) {
-			System.out.println(str);
-		} else {
-			System.err.println(str);
-		}
+		if (isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			log().offer(AsyncLog.Kind.SETTER, name, funcName, value, isSuccess);
+	}
+
+	/**
+	 * Logs a setter of an int, boxed only if the message is written.
+	 * @see #logSetter(String, String, Object, boolean)
+	 */
+	public static void logSetter(String name, String funcName, int value, boolean isSuccess) {
+		if (isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			log().offer(AsyncLog.Kind.SETTER, name, funcName, value, isSuccess);
+	}
 
+	/**
+	 * Logs a setter of a double, boxed only if the message is written.
+	 * @see #logSetter(String, String, Object, boolean)
+	 */
+	public static void logSetter(String name, String funcName, double value, boolean isSuccess) {
+		if (isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			log().offer(AsyncLog.Kind.SETTER, name, funcName, value, isSuccess);
 	}
 
+	/**
+	 * @param name
+	 *            - Name of the Animal
+	 * @param message
+	 *            - The sound
+	 */
 	public static void logSound(String name, String message) {
-		String str = "[!]" + name + ":  \t" + message;
-		System.out.println(str);
+		if (isEnabled(Level.INFO))
+			log().offer(AsyncLog.Kind.SOUND, name, message, null, true);
 	}
 }
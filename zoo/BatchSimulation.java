@@ -0,0 +1,132 @@
+package zoo;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import animals.AnimalStore;
+import animals.Bear;
+import animals.Elephant;
+import animals.Giraffe;
+import animals.Lion;
+import animals.Turtle;
+import mobility.Point;
+import utilities.MessageUtility;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Runs a zoo without any window, as fast as the machine allows.
+ * The world is advanced tick after tick with no sleeping and no rendering,
+ * then the survivors are printed.
+ * Run with: java zoo.BatchSimulation [animals] [ticks] [seed] [soa] [food=ticks] [log=file]
+ * With food=ticks a food is put at a random place every that many ticks, lettuce, cabbage and meat in turn.
+ * With log=file the run is written to an event log, see Replay.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see World
+ */
+public class BatchSimulation {
+
+    /**
+     * Build a world of random animals.
+     * @param animals (Integer) number of animals.
+     * @param seed (Long) seed of the random animals and locations.
+     * @return (World) the world, the animals are not yet simulated.
+     */
+    public static World populate(int animals, long seed) {
+        return populate(new World(new AnimalRegistry(), World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, seed), animals, seed);
+    }
+
+    /**
+     * Add random animals to a world.
+     * The animals are drawn from a generator of their own, not split from the world,
+     * so a replay that spawns them from the log splits the world generator the same way.
+     * @param world (World) the world.
+     * @param animals (Integer) number of animals.
+     * @param seed (Long) seed of the random animals and locations.
+     * @return (World) the same world.
+     */
+    public static World populate(World world, int animals, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        for (int i = 0; i < animals; i++) {
+            int size = 50 + rand.nextInt(251);
+            int hor = 1 + rand.nextInt(10), ver = 1 + rand.nextInt(10);
+            Animal animal = switch (rand.nextInt(5)) {
+                case 0 -> new Lion(size, hor, ver, "Natural", size * 0.8);
+                case 1 -> new Bear(size, hor, ver, "Natural", size * 1.5);
+                case 2 -> new Elephant(size, hor, ver, "Natural", size * 10);
+                case 3 -> new Giraffe(size, hor, ver, "Natural", size * 2.2);
+                default -> new Turtle(size, hor, ver, "Natural", size * 0.5);
+            };
+            animal.setLocation(new Point(rand.nextInt(world.getWidth()), rand.nextInt(world.getHeight())));
+            world.add(animal);
+        }
+        return world;
+    }
+
+    /**
+     * Advance a world by a number of ticks, each followed by its interaction pass.
+     * @param engine (SimulationEngine) engine of the world, not started.
+     * @param ticks (Long) number of ticks.
+     */
+    public static void run(SimulationEngine engine, long ticks) { run(engine, ticks, 0); }
+
+    /**
+     * Advance a world by a number of ticks, and feed it.
+     * The places of the food are drawn from the generator of the world (see World.placeFood),
+     * so the same seed feeds the same way.
+     * @param engine (SimulationEngine) engine of the world, not started.
+     * @param ticks (Long) number of ticks.
+     * @param foodEvery (Integer) ticks between two foods, 0 for none.
+     */
+    public static void run(SimulationEngine engine, long ticks, int foodEvery) {
+        double dt = 1.0 / engine.getHz();
+        World world = engine.getWorld();
+        for (long i = 0; i < ticks; i++) {
+            if (foodEvery > 0 && i % foodEvery == 0)
+                world.placeFood(EventLog.food(1 + (int) (i / foodEvery % 3)));
+            engine.tick(dt);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int animals = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        boolean soa = false;
+        int foodEvery = 0;
+        String logFile = null;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("soa"))
+                soa = true;
+            else if (args[i].startsWith("food="))
+                foodEvery = Integer.parseInt(args[i].substring(5));
+            else if (args[i].startsWith("log="))
+                logFile = args[i].substring(4);
+        }
+        if (System.getProperty("zoo.log.level") == null)
+            MessageUtility.setLevel(MessageUtility.Level.WARN);
+
+        World world = new World(new AnimalRegistry(), World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, seed);
+        EventLog log = logFile == null ? null : new EventLog(new FileOutputStream(logFile), world);
+        world.setEventLog(log); // Before populating, so the spawns are logged
+        populate(world, animals, seed);
+        SimulationEngine engine = new SimulationEngine(world);
+        if (soa)
+            engine.setStore(new AnimalStore());
+        for (Animal animal : world.getAnimals())
+            engine.add(animal);
+
+        long start = System.nanoTime();
+        run(engine, ticks, foodEvery);
+        long time = System.nanoTime() - start;
+        if (log != null) {
+            world.setEventLog(null);
+            log.close();
+        }
+        System.out.printf("%d ticks in %.1f ms (%.0f ticks/s), %d of %d animals left%n",
+                ticks, time / 1e6, ticks / (time / 1e9), world.getAnimals().size(), animals);
+    }
+}
@@ -0,0 +1,181 @@
+package zoo;
+
+import animals.Caretaker;
+import animals.Checkpoint;
+import animals.Snapshot;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backs up a world in the background.
+ * Each checkpoint is opened by the simulation between two ticks (see World.openCheckpoint), which costs it microseconds,
+ * then the animals are copied and written to the Caretaker on the checkpointer thread while the simulation runs on.
+ * An animal that moves before the checkpointer reached it is copied by the thread moving it,
+ * that time is reported apart from the pause of opening.
+ * Backups can be periodic, requested, or both.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Checkpoint
+ */
+public class Checkpointer {
+
+    /**
+     * How long a checkpoint waits for the end of a tick before it is opened by the checkpointer itself.
+     */
+    public static final long TICK_WAIT_MILLIS = 100;
+
+    private final World world;
+    private final Caretaker caretaker;
+    private final ScheduledExecutorService thread = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Checkpointer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Object running = new Object();
+    private Future<?> periodic = null;
+    private long checkpoints = 0, failures = 0, totalBytes = 0;
+    private int lastBytes = 0, lastAnimals = 0;
+    private long lastWriterCopies = 0;
+    private double lastMillis = 0, maxMillis = 0, lastPauseMicros = 0, maxPauseMicros = 0;
+    private double lastWriterMicros = 0, maxWriterMicros = 0;
+
+    /**
+     * A ctor of checkpointer.
+     * @param world (World) the world to back up.
+     * @param caretaker (Caretaker) where the backups go.
+     */
+    public Checkpointer(World world, Caretaker caretaker) {
+        this.world = world;
+        this.caretaker = caretaker;
+    }
+
+    /**
+     * Back up the world every interval, from now on.
+     * @param intervalMillis (Long) time between two backups, 0 or less to stop the periodic backups.
+     */
+    public synchronized void setInterval(long intervalMillis) {
+        if (periodic != null)
+            periodic.cancel(false);
+        periodic = intervalMillis <= 0 ? null
+                : thread.scheduleWithFixedDelay(() -> {
+                    try {
+                        checkpoint();
+                    } catch (RuntimeException e) { // Keep the periodic backups alive
+                        e.printStackTrace();
+                    }
+                }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Back up the world soon, on the checkpointer thread.
+     * @param failed (Runnable) called on the checkpointer thread if the backup failed, may be null.
+     * @return (Future) completes when the backup is written.
+     */
+    public Future<?> request(Runnable failed) {
+        return thread.submit(() -> {
+            if (!checkpoint() && failed != null)
+                failed.run();
+        });
+    }
+
+    /**
+     * Back up the world now, on the calling thread.
+     * @return True if the backup was written, otherwise false.
+     */
+    public boolean checkpoint() {
+        synchronized (running) { // One checkpoint of the world at a time
+            Checkpoint checkpoint = world.openCheckpoint(TICK_WAIT_MILLIS);
+            long start = System.nanoTime();
+            Snapshot snapshot;
+            try {
+                snapshot = checkpoint.finish();
+            } finally {
+                world.closeCheckpoint();
+            }
+            boolean written = caretaker.addSnapshot(snapshot);
+            double millis = (System.nanoTime() - start) / 1e6, pauseMicros = checkpoint.getPauseNanos() / 1e3;
+            double writerMicros = checkpoint.getWriterNanos() / 1e3; // Closed, no writer adds to it anymore
+            synchronized (this) {
+                if (!written) {
+                    failures++;
+                    return false;
+                }
+                checkpoints++;
+                lastAnimals = snapshot.getMementos().size();
+                lastBytes = caretaker.getLastBytes();
+                totalBytes += lastBytes;
+                lastMillis = millis;
+                maxMillis = Math.max(maxMillis, millis);
+                lastPauseMicros = pauseMicros;
+                maxPauseMicros = Math.max(maxPauseMicros, pauseMicros);
+                lastWriterCopies = checkpoint.getWriterCopies();
+                lastWriterMicros = writerMicros;
+                maxWriterMicros = Math.max(maxWriterMicros, writerMicros);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stop the periodic backups and the checkpointer thread.
+     */
+    public synchronized void stop() {
+        periodic = null;
+        thread.shutdownNow();
+    }
+
+    public synchronized long getCheckpoints() { return checkpoints; }
+
+    public synchronized long getFailures() { return failures; }
+
+    /**
+     * A getter of the size of the newest backup.
+     * @return (Integer) bytes.
+     */
+    public synchronized int getLastBytes() { return lastBytes; }
+
+    public synchronized long getTotalBytes() { return totalBytes; }
+
+    /**
+     * A getter of the time from opening the newest checkpoint to writing it.
+     * @return (Double) milliseconds.
+     */
+    public synchronized double getLastMillis() { return lastMillis; }
+
+    public synchronized double getMaxMillis() { return maxMillis; }
+
+    /**
+     * A getter of how long opening the newest checkpoint held the thread that opened it.
+     * @return (Double) microseconds.
+     */
+    public synchronized double getLastPauseMicros() { return lastPauseMicros; }
+
+    public synchronized double getMaxPauseMicros() { return maxPauseMicros; }
+
+    /**
+     * A getter of how many animals of the newest checkpoint were copied by the threads moving them.
+     * @return (Long) copies count.
+     */
+    public synchronized long getLastWriterCopies() { return lastWriterCopies; }
+
+    /**
+     * A getter of how long the threads moving the animals spent copying them for the newest checkpoint,
+     * on the simulation engine this is added to its ticks.
+     * @return (Double) microseconds.
+     */
+    public synchronized double getLastWriterMicros() { return lastWriterMicros; }
+
+    public synchronized double getMaxWriterMicros() { return maxWriterMicros; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d backups of %d animals, last %d bytes in %.1f ms (max %.1f ms), pause %.1f us (max %.1f us), "
+                        + "%d copied by the simulation in %.1f us (max %.1f us)",
+                checkpoints, lastAnimals, lastBytes, lastMillis, maxMillis, lastPauseMicros, maxPauseMicros,
+                lastWriterCopies, lastWriterMicros, maxWriterMicros);
+    }
+}
@@ -0,0 +1,208 @@
+package zoo;
+
+import animals.Animal;
+import animals.Bear;
+import animals.Elephant;
+import animals.Giraffe;
+import animals.Lion;
+import animals.Turtle;
+import plants.Cabbage;
+import plants.Lettuce;
+import plants.Meat;
+import plants.Plant;
+import utilities.Catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A compact binary log of what happened in a world.
+ * The header holds the seed and the bounds, then every record is a type byte and a few fixed fields.
+ * Spawns, moves, food and ticks are the inputs of a run, eats, feeds and deaths are its outcomes,
+ * and every tick also records a checksum of all the animals.
+ * Replaying the inputs on a world with the same seed must give the same bytes (see Replay).
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see World#setEventLog(EventLog)
+ */
+public class EventLog implements Closeable {
+
+    /**
+     * First bytes of a log, "ZOOL".
+     */
+    public static final int MAGIC = 0x5A4F4F4C;
+    public static final byte VERSION = 1;
+    static final byte SPAWN = 1, MOVE = 2, FOOD = 3, TICK = 4, FEED = 5, EAT = 6, DEATH = 7;
+
+    private final DataOutputStream out;
+    private IOException error = null;
+    private long records = 0;
+
+    /**
+     * A ctor of a log, writes the header.
+     * @param out (OutputStream) where the log goes, closed with the log.
+     * @param world (World) the logged world, for its seed and bounds.
+     * @throws IOException if the header cannot be written.
+     */
+    public EventLog(OutputStream out, World world) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(world.getSeed());
+        this.out.writeInt(world.getWidth());
+        this.out.writeInt(world.getHeight());
+    }
+
+    synchronized void spawn(int id, Animal animal) {
+        if (error != null)
+            return;
+        try {
+            out.writeByte(SPAWN);
+            out.writeInt(id);
+            out.writeByte(indexOf(Catalog.SPECIES, animal.getClass().getSimpleName()));
+            out.writeByte(indexOf(Catalog.COLORS, animal.getColorToString()));
+            out.writeShort(animal.getSize());
+            out.writeByte(animal.getHorSpeed());
+            out.writeByte(animal.getVerSpeed());
+            out.writeByte(animal.getX_dir());
+            out.writeByte(animal.getY_dir());
+            out.writeDouble(animal.getWeight());
+            out.writeInt(animal.getX());
+            out.writeInt(animal.getY());
+            records++;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    synchronized void move(int id, int x, int y) {
+        if (error != null)
+            return;
+        try {
+            out.writeByte(MOVE);
+            out.writeInt(id);
+            out.writeInt(x);
+            out.writeInt(y);
+            records++;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    synchronized void food(Plant food) {
+        if (error != null)
+            return;
+        try {
+            out.writeByte(FOOD);
+            out.writeByte(food == null ? 0 : indexOf(Catalog.FOODS, food.getClass().getSimpleName()) + 1);
+            out.writeInt(food == null ? 0 : food.getLocation().getX());
+            out.writeInt(food == null ? 0 : food.getLocation().getY());
+            records++;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    synchronized void tick(double dt, long checksum) {
+        if (error != null)
+            return;
+        try {
+            out.writeByte(TICK);
+            out.writeDouble(dt);
+            out.writeLong(checksum);
+            records++;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    synchronized void feed(int id) { idRecord(FEED, id, -1); }
+
+    synchronized void eat(int predator, int prey) { idRecord(EAT, predator, prey); }
+
+    synchronized void death(int id) { idRecord(DEATH, id, -1); }
+
+    private void idRecord(byte type, int id, int other) {
+        if (error != null)
+            return;
+        try {
+            out.writeByte(type);
+            out.writeInt(id);
+            if (other >= 0)
+                out.writeInt(other);
+            records++;
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * A getter of the number of records written.
+     * @return (Long) records count.
+     */
+    public synchronized long getRecords() { return records; }
+
+    /**
+     * A getter of the first write error, the log stops writing after it.
+     * @return (IOException) the error, or null if there was none.
+     */
+    public synchronized IOException getError() { return error; }
+
+    /**
+     * Write the buffered records.
+     * @throws IOException if they cannot be written.
+     */
+    public synchronized void flush() throws IOException { out.flush(); }
+
+    @Override
+    public synchronized void close() throws IOException { out.close(); }
+
+    /**
+     * Build an animal as it was logged by a spawn record.
+     * @param species (Integer) index in Catalog.SPECIES.
+     * @param color (Integer) index in Catalog.COLORS.
+     * @return (Animal) the animal, without a world or a location.
+     */
+    static Animal create(int species, int color, int size, int horSpeed, int verSpeed, double weight) {
+        String col = Catalog.COLORS[color];
+        return switch (Catalog.SPECIES[species]) {
+            case "Lion" -> new Lion(size, horSpeed, verSpeed, col, weight);
+            case "Bear" -> new Bear(size, horSpeed, verSpeed, col, weight);
+            case "Elephant" -> new Elephant(size, horSpeed, verSpeed, col, weight);
+            case "Giraffe" -> new Giraffe(size, horSpeed, verSpeed, col, weight);
+            default -> new Turtle(size, horSpeed, verSpeed, col, weight);
+        };
+    }
+
+    /**
+     * The food logged by a food record.
+     * @param type (Integer) 0 for none, otherwise index in Catalog.FOODS plus one.
+     * @return (Plant) the food, or null for none.
+     */
+    static Plant food(int type) {
+        return type == 0 ? null : switch (Catalog.FOODS[type - 1]) {
+            case "Lettuce" -> Lettuce.getInstance();
+            case "Cabbage" -> Cabbage.getInstance();
+            case "Meat" -> Meat.getInstance();
+            default -> null;
+        };
+    }
+
+    private void failed(IOException e) {
+        if (error == null) {
+            error = e;
+            System.out.println("Event log stopped: " + e.getMessage());
+        }
+    }
+
+    private static int indexOf(String[] names, String name) {
+        int index = Catalog.indexOf(names, name);
+        if (index < 0)
+            throw new IllegalArgumentException("Cannot log " + name);
+        return index;
+    }
+}
@@ -0,0 +1,121 @@
+package zoo;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces frame requests into a single pass per frame.
+ * Every moving animal asks for a frame, but the pass (World.manage and its render)
+ * runs only once for all the requests made since the previous pass.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see World#requestPass()
+ */
+public class FrameScheduler {
+    private final Runnable pass, idle;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong passes = new AtomicLong();
+    private ScheduledExecutorService timer = null;
+
+    /**
+     * A ctor of the scheduler.
+     * @param pass (Runnable) The work to be done once per frame.
+     */
+    public FrameScheduler(Runnable pass) { this(pass, null); }
+
+    /**
+     * A ctor of the scheduler.
+     * @param pass (Runnable) The work to be done once per frame.
+     * @param idle (Runnable) The work to be done by a flush that has no pass to run, may be null.
+     */
+    public FrameScheduler(Runnable pass, Runnable idle) {
+        this.pass = pass;
+        this.idle = idle;
+    }
+
+    /**
+     * Ask for a pass in the next frame, cheap and never blocks.
+     */
+    public void request() { request(1); }
+
+    /**
+     * Ask for a pass in the next frame on behalf of several movements.
+     * @param count (Integer) number of requests.
+     */
+    public void request(int count) {
+        if (count <= 0)
+            return;
+        requests.addAndGet(count);
+        pending.set(true);
+    }
+
+    /**
+     * Run the pass now if it was requested since the previous one, otherwise the idle work.
+     * @return True if the pass ran, otherwise false.
+     */
+    public boolean flush() {
+        if (!pending.getAndSet(false)) {
+            if (idle != null)
+                idle.run();
+            return false;
+        }
+        passes.incrementAndGet();
+        pass.run();
+        return true;
+    }
+
+    /**
+     * Start flushing on a timer thread.
+     * @param periodMillis (Long) Frame length in milliseconds.
+     */
+    public synchronized void start(long periodMillis) {
+        if (timer != null)
+            return;
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "FrameScheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) { // Keep the timer alive
+                e.printStackTrace();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the timer thread.
+     */
+    public synchronized void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    /**
+     * A getter of the number of frame requests.
+     * @return (Long) requests count.
+     */
+    public long getRequests() { return requests.get(); }
+
+    /**
+     * A getter of the number of passes that actually ran.
+     * @return (Long) passes count.
+     */
+    public long getPasses() { return passes.get(); }
+
+    /**
+     * A getter of the number of passes saved by coalescing,
+     * each request used to cost a pass of its own.
+     * @return (Long) avoided passes count.
+     */
+    public long getAvoidedPasses() { return Math.max(0, getRequests() - getPasses()); }
+}
@@ -0,0 +1,182 @@
+package zoo;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import plants.Plant;
+import utilities.Catalog;
+
+/**
+ * What a renderer draws of a world at the end of a pass.
+ * The world fills a snapshot after each pass and hands it to the renderer through a TripleBuffer,
+ * the renderer reads it without any lock and it does not change while it is read,
+ * so the renderer never sees an animal half way through a move. The buffers are reused, a pass allocates nothing.
+ * The animals are packed in arrays, in registration order: their ids, their positions,
+ * their sizes, their sprites and the directions they face.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see World#takeRenderSnapshot()
+ */
+public final class RenderSnapshot {
+
+    /**
+     * Width and height of a drawn food.
+     */
+    public static final int FOOD_SIZE = 50;
+    /**
+     * Sprite directions, the numbers of the sprite files.
+     */
+    public static final byte RIGHT = 1, LEFT = 2;
+
+    private static final ClassValue<Integer> SPECIES_OF = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) { return Math.max(0, Catalog.indexOf(Catalog.SPECIES, type.getSimpleName())); }
+    };
+
+    private long sequence = 0;
+    private int count = 0;
+    private int[] ids = new int[0], sizes = new int[0];
+    private long[] positions = new long[0]; // x in the high half, y in the low half
+    private byte[] sprites = new byte[0], directions = new byte[0];
+    private int food = -1;
+    private long foodPosition = 0;
+
+    /**
+     * A ctor of an empty snapshot, nothing to draw.
+     */
+    public RenderSnapshot() {}
+
+    /**
+     * Copy what is drawn of the animals and the food into this snapshot.
+     * @param animals (View) the animals, with their ids.
+     * @param food (Plant) the food, or null for none.
+     * @param sequence (Long) number of the snapshot, higher is newer.
+     */
+    void capture(AnimalRegistry.View animals, Plant food, long sequence) {
+        int capacity = animals.size();
+        if (ids.length < capacity)
+            grow(capacity + capacity / 4);
+        count = 0;
+        animals.forEach((animal, id) -> {
+            int i = count;
+            if (i == capacity)
+                return;
+            ids[i] = id;
+            positions[i] = pack(animal.getX(), animal.getY());
+            sizes[i] = animal.getSize();
+            sprites[i] = (byte) spriteOf(animal);
+            directions[i] = animal.getX_dir() == 1 ? RIGHT : LEFT;
+            count = i + 1;
+        });
+        this.food = food == null ? -1 : Catalog.indexOf(Catalog.FOODS, food.getClass().getSimpleName());
+        this.foodPosition = food == null ? 0 : pack(food.getLocation().getX(), food.getLocation().getY());
+        this.sequence = sequence;
+    }
+
+    /**
+     * Copy another snapshot into this one, for a renderer that keeps a frame after handing it back.
+     * @param other (RenderSnapshot) the snapshot to copy.
+     */
+    public void copyFrom(RenderSnapshot other) {
+        if (ids.length < other.count)
+            grow(other.count);
+        count = other.count;
+        System.arraycopy(other.ids, 0, ids, 0, count);
+        System.arraycopy(other.positions, 0, positions, 0, count);
+        System.arraycopy(other.sizes, 0, sizes, 0, count);
+        System.arraycopy(other.sprites, 0, sprites, 0, count);
+        System.arraycopy(other.directions, 0, directions, 0, count);
+        food = other.food;
+        foodPosition = other.foodPosition;
+        sequence = other.sequence;
+    }
+
+    private void grow(int capacity) {
+        ids = new int[capacity];
+        positions = new long[capacity];
+        sizes = new int[capacity];
+        sprites = new byte[capacity];
+        directions = new byte[capacity];
+    }
+
+    private static int spriteOf(Animal animal) {
+        return SPECIES_OF.get(animal.getClass()) * Catalog.COLORS.length
+                + Math.max(0, Catalog.indexOf(Catalog.COLORS, animal.getColorToString()));
+    }
+
+    private static long pack(int x, int y) { return (long) x << 32 | (y & 0xFFFFFFFFL); }
+
+    /**
+     * A getter of the number of the snapshot.
+     * @return (Long) sequence, higher is newer.
+     */
+    public long getSequence() { return sequence; }
+
+    /**
+     * A getter of the number of animals drawn.
+     * @return (Integer) animals count.
+     */
+    public int size() { return count; }
+
+    /**
+     * A getter of the registry id of an animal, ids grow in the order of the animals.
+     * @param i (Integer) index of the animal in the snapshot.
+     * @return (Integer) id.
+     */
+    public int getId(int i) { return ids[i]; }
+
+    public int getX(int i) { return (int) (positions[i] >> 32); }
+
+    public int getY(int i) { return (int) positions[i]; }
+
+    public int getSize(int i) { return sizes[i]; }
+
+    /**
+     * A getter of the sprite of an animal.
+     * @param i (Integer) index of the animal in the snapshot.
+     * @return (Integer) index in Catalog.SPECIES times the number of colors plus index in Catalog.COLORS.
+     */
+    public int getSprite(int i) { return sprites[i]; }
+
+    /**
+     * A getter of the direction an animal faces.
+     * @param i (Integer) index of the animal in the snapshot.
+     * @return (Integer) RIGHT or LEFT.
+     */
+    public int getDirection(int i) { return directions[i]; }
+
+    /**
+     * Where the sprite of an animal is drawn, the same area as Animal.drawObject.
+     * @param i (Integer) index of the animal in the snapshot.
+     * @return (Integer) left edge.
+     */
+    public int getLeft(int i) { return directions[i] == RIGHT ? getX(i) - sizes[i] / 2 : getX(i); }
+
+    public int getTop(int i) { return getY(i) - sizes[i] / 10; }
+
+    public int getWidth(int i) { return sizes[i] / 2; }
+
+    public int getHeight(int i) { return sizes[i]; }
+
+    /**
+     * Check if an animal of this snapshot is drawn the same as an animal of another one.
+     * @param i (Integer) index of the animal in this snapshot.
+     * @param other (RenderSnapshot) the other snapshot.
+     * @param j (Integer) index of the animal in the other snapshot.
+     * @return True if the same sprite is drawn at the same place, otherwise false.
+     */
+    public boolean looksSame(int i, RenderSnapshot other, int j) {
+        return positions[i] == other.positions[j] && sizes[i] == other.sizes[j]
+                && sprites[i] == other.sprites[j] && directions[i] == other.directions[j];
+    }
+
+    /**
+     * A getter of the food.
+     * @return (Integer) index in Catalog.FOODS, or -1 for none.
+     */
+    public int getFood() { return food; }
+
+    public int getFoodX() { return (int) (foodPosition >> 32); }
+
+    public int getFoodY() { return (int) foodPosition; }
+}
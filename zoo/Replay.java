@@ -0,0 +1,124 @@
+package zoo;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import mobility.Point;
+import plants.Plant;
+import utilities.MessageUtility;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Replays an event log at full speed, without rendering.
+ * The inputs of the log (spawns, moves, food and ticks) are fed to a new world with the same seed,
+ * the replay is logged again and both logs must be the same, byte for byte.
+ * Run with: java zoo.Replay log-file
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see EventLog
+ */
+public class Replay {
+
+    /**
+     * Replay a log.
+     * @param in (DataInputStream) the log to replay.
+     * @param copy (OutputStream) where the log of the replay is written, closed at the end.
+     * @return (Long) number of ticks replayed.
+     * @throws IOException if the log cannot be read or is not a valid event log.
+     */
+    public static long replay(DataInputStream in, OutputStream copy) throws IOException {
+        if (in.readInt() != EventLog.MAGIC)
+            throw new IOException("Not an event log");
+        if (in.readByte() != EventLog.VERSION)
+            throw new IOException("Unknown event log version");
+        long seed = in.readLong();
+        int width = in.readInt(), height = in.readInt();
+        World world = new World(new AnimalRegistry(), width, height, seed);
+        SimulationEngine engine = new SimulationEngine(world);
+        EventLog log = new EventLog(copy, world);
+        world.setEventLog(log);
+        long ticks = 0;
+        int type;
+        try {
+            while ((type = in.read()) != -1) {
+                switch (type) {
+                    case EventLog.SPAWN -> {
+                        int id = in.readInt();
+                        int species = in.readByte(), color = in.readByte(), size = in.readShort();
+                        int horSpeed = in.readByte(), verSpeed = in.readByte();
+                        int xDir = in.readByte(), yDir = in.readByte();
+                        double weight = in.readDouble();
+                        Point location = new Point(in.readInt(), in.readInt());
+                        Animal animal = EventLog.create(species, color, size, horSpeed, verSpeed, weight);
+                        animal.setX_dir(xDir);
+                        animal.setY_dir(yDir);
+                        animal.setLocation(location);
+                        if (world.add(animal) != id)
+                            throw new IOException("Spawn of animal " + id + " out of order");
+                        engine.add(animal);
+                    }
+                    case EventLog.MOVE -> {
+                        Animal animal = world.getAnimals().get(in.readInt());
+                        Point location = new Point(in.readInt(), in.readInt());
+                        if (animal != null)
+                            world.move(animal, location);
+                    }
+                    case EventLog.FOOD -> {
+                        Plant food = EventLog.food(in.readByte());
+                        Point location = new Point(in.readInt(), in.readInt());
+                        if (food != null)
+                            food.setLocation(location);
+                        world.setFood(food);
+                    }
+                    case EventLog.TICK -> {
+                        double dt = in.readDouble();
+                        in.readLong(); // Checksum, compared with the rest of the bytes
+                        engine.tick(dt);
+                        ticks++;
+                    }
+                    case EventLog.FEED, EventLog.DEATH -> in.readInt(); // Outcomes, the replay makes its own
+                    case EventLog.EAT -> {
+                        in.readInt();
+                        in.readInt();
+                    }
+                    default -> throw new IOException("Unknown record " + type);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("The event log is cut in the middle of a record", e);
+        } finally {
+            world.setEventLog(null);
+            log.close();
+        }
+        return ticks;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java zoo.Replay log-file");
+            return;
+        }
+        if (System.getProperty("zoo.log.level") == null)
+            MessageUtility.setLevel(MessageUtility.Level.WARN);
+        byte[] original = Files.readAllBytes(Path.of(args[0]));
+        ByteArrayOutputStream copy = new ByteArrayOutputStream(original.length);
+        long start = System.nanoTime();
+        long ticks = replay(new DataInputStream(new ByteArrayInputStream(original)), copy);
+        long time = System.nanoTime() - start;
+        byte[] replayed = copy.toByteArray();
+        long mismatch = Arrays.mismatch(original, replayed);
+        System.out.printf("%d ticks replayed in %.1f ms (%.0f ticks/s), %s%n", ticks, time / 1e6, ticks / (time / 1e9),
+                mismatch < 0 ? "identical to the log" : "differs from the log at byte " + mismatch);
+        if (mismatch >= 0)
+            System.exit(1);
+    }
+}
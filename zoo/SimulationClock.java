@@ -0,0 +1,130 @@
+package zoo;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The clock of a world, pauses and resumes the whole simulation at once.
+ * Everything that moves the animals (the SimulationEngine, or each animal thread)
+ * calls awaitTick before a tick. While the clock runs that is a single volatile read;
+ * while it is paused the callers wait on one shared Condition,
+ * so pausing or resuming costs the same for 10 animals or 50k.
+ * A paused clock can also be stepped, every caller then advances that many ticks.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see World#getClock()
+ */
+public class SimulationClock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Condition woken = lock.newCondition(); // Only the callers that can be woken wait on it
+    private volatile boolean paused = false;
+    private volatile long stepped = 0; // Ticks released by step() since the start
+
+    /**
+     * Pause the simulation, the callers of awaitTick wait from their next tick.
+     */
+    public void pause() { paused = true; }
+
+    /**
+     * Resume the simulation and wake up every waiting caller.
+     */
+    public void resume() {
+        lock.lock();
+        try {
+            paused = false;
+            changed.signalAll();
+            woken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Let every caller advance some ticks while the clock stays paused.
+     * @param ticks (Integer) number of ticks.
+     * @return True if succeeded, false if the clock is not paused or ticks is not positive.
+     */
+    public boolean step(int ticks) {
+        if (ticks <= 0)
+            return false;
+        lock.lock();
+        try {
+            if (!paused)
+                return false;
+            stepped += ticks;
+            changed.signalAll();
+            woken.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wake up the callers of awaitTick waiting with a wake condition, to check it again.
+     * The ones waiting without one, like the animal threads, are not disturbed.
+     */
+    public void wake() {
+        lock.lock();
+        try {
+            woken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A getter of the paused state.
+     * @return True if paused, otherwise false.
+     */
+    public boolean isPaused() { return paused; }
+
+    /**
+     * A getter of the number of ticks released by step() so far,
+     * the first value a new caller passes to awaitTick.
+     * @return (Long) stepped ticks.
+     */
+    public long getStepped() { return stepped; }
+
+    /**
+     * Wait until the caller may do its next tick.
+     * Each caller keeps the value returned by the previous call and passes it back,
+     * that is how a step of N ticks lets every caller advance exactly N ticks.
+     * Returns at once, without locking, while the clock runs.
+     * @param seen (Long) the value returned by the previous call of this caller, getStepped() at first.
+     * @return (Long) the value to pass to the next call.
+     * If the thread is interrupted while waiting, seen is returned and the interrupt flag is kept.
+     */
+    public long awaitTick(long seen) { return awaitTick(seen, null); }
+
+    /**
+     * Wait until the caller may do its next tick, or until it has something else to do while the clock is paused.
+     * @param seen (Long) the value returned by the previous call of this caller, getStepped() at first.
+     * @param wake (BooleanSupplier) true when the caller has to wake up, checked again after every wake() call.
+     * @return (Long) the value to pass to the next call, seen if woken up without a tick.
+     */
+    public long awaitTick(long seen, BooleanSupplier wake) {
+        if (!paused)
+            return stepped;
+        lock.lock();
+        try {
+            while (paused && seen >= stepped) {
+                if (wake == null)
+                    changed.await();
+                else if (wake.getAsBoolean())
+                    return seen;
+                else woken.await();
+            }
+            return paused ? seen + 1 : stepped;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return seen;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package zoo;
+
+import animals.Animal;
+import animals.AnimalStore;
+import plants.Plant;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed-timestep simulation engine.
+ * One thread advances all the animals in a single pass per tick,
+ * instead of one thread (and one sleep) per animal.
+ * The list of animals belongs to the ticks: animals added from other threads wait in a queue
+ * that the next tick drains, and the animals that stopped are removed in bulk after the tick.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see Animal#update(double)
+ */
+public class SimulationEngine implements Runnable {
+
+    /**
+     * Default tick rate, one tick per 75 ms animal step.
+     */
+    public static final double DEFAULT_HZ = 1000.0 / Animal.SPEED;
+    private static final int MAX_TICKS_PER_FRAME = 5; // Catch-up limit after a long stall
+
+    private final World world;
+    private final ArrayList<Animal> animals = new ArrayList<>(); // Only under the lock of the engine
+    private final ConcurrentLinkedQueue<Animal> joining = new ConcurrentLinkedQueue<>();
+    private final Set<Animal> members = ConcurrentHashMap.newKeySet(); // Simulated or joining
+    private volatile long tickNanos;
+    private volatile boolean running = false;
+    private Thread thread = null;
+    private long ticks = 0;
+    private AnimalStore store = null;
+
+    /**
+     * A ctor of the engine with the default tick rate.
+     * @param world (World) World the animals live in.
+     */
+    public SimulationEngine(World world) {
+        this(world, DEFAULT_HZ);
+    }
+
+    /**
+     * A ctor of the engine.
+     * @param world (World) World the animals live in.
+     * @param hz (Double) Ticks per second.
+     */
+    public SimulationEngine(World world, double hz) {
+        this.world = world;
+        setHz(hz);
+    }
+
+    /**
+     * A getter of the world.
+     * @return (World) World the animals live in.
+     */
+    public World getWorld() { return world; }
+
+    /**
+     * A setter of the tick rate, can be changed while running.
+     * @param hz (Double) Ticks per second.
+     * @return True if succeeded, otherwise false.
+     */
+    public boolean setHz(double hz) {
+        if (hz <= 0)
+            return false;
+        this.tickNanos = (long) (TimeUnit.SECONDS.toNanos(1) / hz);
+        return true;
+    }
+
+    /**
+     * A getter of the tick rate.
+     * @return (Double) Ticks per second.
+     */
+    public double getHz() { return (double) TimeUnit.SECONDS.toNanos(1) / tickNanos; }
+
+    /**
+     * A getter of the number of ticks done so far.
+     * @return (Long) tick count.
+     */
+    public synchronized long getTicks() { return ticks; }
+
+    /**
+     * Add an animal to the simulation, from the next tick on. Never waits for a tick to end.
+     * @param animal (Animal) to be advanced every tick.
+     * @return True if added, false if it is already simulated.
+     */
+    public boolean add(Animal animal) {
+        if (!members.add(animal))
+            return false;
+        joining.add(animal);
+        return true;
+    }
+
+    /**
+     * Move the animals added since the previous tick into the list of the ticks.
+     */
+    private void drain() {
+        for (Animal animal; (animal = joining.poll()) != null; ) {
+            animals.add(animal);
+            if (store != null)
+                animal.bindTo(store);
+        }
+    }
+
+    /**
+     * Take an animal out of the simulation if it stopped, for a bulk removeIf.
+     * @param animal (Animal) a simulated animal.
+     * @return True if it stopped and was taken out, otherwise false.
+     */
+    private boolean leaves(Animal animal) {
+        if (!animal.isStopped())
+            return false;
+        animal.unbind();
+        members.remove(animal);
+        return true;
+    }
+
+    /**
+     * Move the state of all the simulated animals into a column store,
+     * so a tick advances them in one loop over primitive arrays.
+     * @param store (AnimalStore) the store, null to advance each Animal object.
+     */
+    public synchronized void setStore(AnimalStore store) {
+        drain();
+        this.store = store;
+        for (Animal animal : animals)
+            animal.bindTo(store);
+    }
+
+    /**
+     * A getter of the column store.
+     * @return (AnimalStore) the store, or null if not used.
+     */
+    public AnimalStore getStore() { return store; }
+
+    /**
+     * Start the simulation thread.
+     */
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+        thread = new Thread(this, "SimulationEngine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the simulation thread, waits for the current tick to finish.
+     */
+    public void shutdown() {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = thread;
+            thread = null;
+        }
+        if (t != null && t != Thread.currentThread()) {
+            t.interrupt();
+            try {
+                t.join();
+            } catch (InterruptedException ignored) {}
+        }
+    }
+
+    /**
+     * The fixed-timestep loop.
+     * Real elapsed time is accumulated and consumed in whole ticks,
+     * so the simulation speed does not depend on how long a tick takes.
+     * While the world clock is paused the loop waits on it, and does one tick per stepped tick.
+     * It also wakes up while paused to publish the changes made to the world, see World.requestPublish.
+     */
+    @Override
+    public void run() {
+        SimulationClock clock = world.getClock();
+        long seen = clock.getStepped();
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        while (running) {
+            if (clock.isPaused()) {
+                long next = clock.awaitTick(seen, world::isPublishRequested);
+                if (next == seen) // Woken up without a tick
+                    world.getFrameScheduler().flush();
+                else if (running && clock.isPaused()) // Released by a step
+                    tick(tickNanos / 1e9);
+                seen = next;
+                previous = System.nanoTime(); // No catching up on the paused time
+                accumulator = 0;
+                continue;
+            }
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+            long step = tickNanos;
+            int done = 0;
+            while (accumulator >= step && done < MAX_TICKS_PER_FRAME && !clock.isPaused()) {
+                tick(step / 1e9);
+                accumulator -= step;
+                done++;
+            }
+            if (done == MAX_TICKS_PER_FRAME)
+                accumulator = 0; // Drop the backlog instead of spiralling
+            long sleep = step - accumulator;
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Advance every animal once, then handle the interactions once.
+     * Each moved animal requests a frame, all of them are served by one pass at the end of the tick.
+     * @param dt (Double) Tick length in seconds.
+     */
+    public synchronized void tick(double dt) {
+        drain();
+        if (store != null) {
+            animals.removeIf(this::leaves); // Before the store moves their rows
+            if (world.getCheckpoint() != null) // Save the rows about to step, the checkpointer copies the others
+                for (Animal animal : animals)
+                    if (!animal.isSuspended())
+                        animal.beforeUpdate(dt);
+            Plant food = world.getFood();
+            world.getFrameScheduler().request(store.update(dt, Animal.SPEED, world.getWidth(), world.getHeight(),
+                    food == null ? 0 : food.getLocation().getX(), food == null ? 0 : food.getLocation().getY(),
+                    food == null ? null : food.getFoodType()));
+        }
+        else {
+            for (Animal animal : animals)
+                if (!animal.isStopped() && !animal.isSuspended()) {
+                    animal.update(dt);
+                    world.requestPass();
+                }
+            animals.removeIf(this::leaves);
+        }
+        world.getFrameScheduler().flush();
+        world.ticked(dt);
+        ticks++;
+    }
+}
@@ -0,0 +1,95 @@
+package zoo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A lock-free handoff of frames from one producer to one consumer through three buffers.
+ * The producer fills the back buffer while the consumer reads the front one, and the third one holds
+ * the newest complete frame. Publishing swaps the back buffer with it, taking swaps the front buffer with it
+ * if it is newer, so neither side ever waits for the other or sees a buffer being written,
+ * and a slow consumer just skips the frames it had no time for.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @param <T> the type of the buffers.
+ * @see World#publish()
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX = 3, FRESH = 4; // The middle buffer and whether the consumer has not taken it
+
+    private final Object[] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0, front = 2; // Owned by the producer and by the consumer
+    private final AtomicLong published = new AtomicLong(), taken = new AtomicLong(), skipped = new AtomicLong();
+
+    /**
+     * A ctor of triple buffer.
+     * @param factory (Supplier) makes each of the three buffers, the first frame taken is an empty one.
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        buffers = new Object[] {factory.get(), factory.get(), factory.get()};
+    }
+
+    /**
+     * A getter of the buffer to fill, for the producer only.
+     * @return (T) the back buffer, its content is an old frame.
+     */
+    @SuppressWarnings("unchecked")
+    public T back() { return (T) buffers[back]; }
+
+    /**
+     * Hand the filled back buffer to the consumer and get another one to fill, for the producer only.
+     */
+    public void publish() {
+        int old = middle.getAndSet(back | FRESH);
+        if ((old & FRESH) != 0) // Never taken
+            skipped.incrementAndGet();
+        back = old & INDEX;
+        published.incrementAndGet();
+    }
+
+    /**
+     * A getter of the newest frame, for the consumer only.
+     * It stays the same until the next call, even if newer frames are published meanwhile.
+     * @return (T) the front buffer.
+     */
+    @SuppressWarnings("unchecked")
+    public T front() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+            taken.incrementAndGet();
+        }
+        return (T) buffers[front];
+    }
+
+    /**
+     * Check if a frame was published since the consumer last took one.
+     * @return True if front() would return a newer frame, otherwise false.
+     */
+    public boolean isFresh() { return (middle.get() & FRESH) != 0; }
+
+    /**
+     * A getter of the number of frames published.
+     * @return (Long) published frames count.
+     */
+    public long getPublished() { return published.get(); }
+
+    /**
+     * A getter of the number of frames taken by the consumer.
+     * @return (Long) taken frames count.
+     */
+    public long getTaken() { return taken.get(); }
+
+    /**
+     * A getter of the number of frames replaced by newer ones before the consumer took them.
+     * @return (Long) skipped frames count.
+     */
+    public long getSkipped() { return skipped.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames published, %d taken, %d skipped", getPublished(), getTaken(), getSkipped());
+    }
+}
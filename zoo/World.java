@@ -0,0 +1,623 @@
+package zoo;
+
+import animals.Animal;
+import animals.AnimalRegistry;
+import animals.Checkpoint;
+import mobility.Point;
+import diet.Carnivore;
+import diet.Herbivore;
+import diet.Omnivore;
+import mobility.SpatialGrid;
+import plants.Plant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * The state of a zoo without any user interface: its bounds, its animals and its food,
+ * and the rules of who eats what.
+ * A World runs without AWT, so batch simulations can run on machines without a display;
+ * ZooPanel is just one optional renderer of it.
+ *
+ * @version 1.4 18 October 2026
+ * @author Ido Ben Nun, Bar Cohen
+ * @see SimulationEngine
+ */
+public class World {
+
+    /**
+     * Default bounds, the size of the panel in ZooFrame.
+     */
+    public static final int DEFAULT_WIDTH = 800, DEFAULT_HEIGHT = 600;
+    private static final int PARALLEL_THRESHOLD = 512; // Fewer animals are hunted on the calling thread
+    private static final int CELLS_PER_TASK = 16;
+
+    private final AnimalRegistry animals;
+    private volatile int width, height;
+    private volatile Plant food = null; // Changed under the lock, read without it by publish
+    private final SpatialGrid<Animal> grid = new SpatialGrid<>(); // Used only by the pass holding passLock
+    private final Object passLock = new Object(); // One pass at a time, without the lock of the world
+    private final FrameScheduler passes = new FrameScheduler(this::manage, this::publishIfRequested);
+    private volatile Consumer<RenderSnapshot> renderer = null;
+    private volatile boolean publishing = false, publishWanted = false;
+    private final TripleBuffer<RenderSnapshot> frames = new TripleBuffer<>(RenderSnapshot::new);
+    private final Object publishLock = new Object();
+    private long published = 0;
+    private final SimulationClock clock = new SimulationClock();
+    private final long seed;
+    private final SplittableRandom random;
+    private volatile EventLog log = null;
+    private volatile Checkpoint checkpoint = null;
+    private volatile boolean checkpointWanted = false;
+    private final Object checkpointLock = new Object();
+
+    /**
+     * A ctor of a world with the default bounds.
+     * @param animals (AnimalRegistry) All existing animals.
+     */
+    public World(AnimalRegistry animals) {
+        this(animals, DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * A ctor of a world.
+     * @param animals (AnimalRegistry) All existing animals.
+     * @param width (Integer) Width of the world.
+     * @param height (Integer) Height of the world.
+     */
+    public World(AnimalRegistry animals, int width, int height) {
+        this(animals, width, height, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * A ctor of a seeded world, two worlds with the same seed and the same inputs run the same.
+     * @param animals (AnimalRegistry) All existing animals.
+     * @param width (Integer) Width of the world.
+     * @param height (Integer) Height of the world.
+     * @param seed (Long) Seed of the random generator of the world.
+     */
+    public World(AnimalRegistry animals, int width, int height, long seed) {
+        this.animals = animals;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        setSize(width, height);
+    }
+
+    /**
+     * A getter of the seed.
+     * @return (Long) seed of the random generator of the world.
+     */
+    public long getSeed() { return seed; }
+
+    /**
+     * A new random generator for an entity of the world, e.g. an animal.
+     * Each call splits off an independent generator, so the numbers of an entity
+     * depend only on the seed and the order the entities were created in.
+     * @return (RandomGenerator) the generator.
+     */
+    public synchronized RandomGenerator splitRandom() { return random.split(); }
+
+    /**
+     * Add an animal to the world and log its spawn.
+     * @param animal (Animal) animal with its location set.
+     * @return (Integer) id of the animal in the registry.
+     */
+    public int add(Animal animal) {
+        animal.setWorld(this);
+        int id = animals.add(animal);
+        EventLog l = log;
+        if (l != null)
+            l.spawn(id, animal);
+        return id;
+    }
+
+    /**
+     * Move an animal to a new location and log the move.
+     * @param animal (Animal) animal of this world.
+     * @param location (Point) new location.
+     * @return True if succeeded, otherwise false.
+     */
+    public boolean move(Animal animal, Point location) {
+        if (!animal.setLocation(location))
+            return false;
+        EventLog l = log;
+        if (l != null)
+            l.move(animals.getId(animal), location.getX(), location.getY());
+        return true;
+    }
+
+    /**
+     * A setter of the event log, everything that happens from now on is written to it.
+     * Only a world driven by a SimulationEngine on a single thread can be replayed.
+     * @param log (EventLog) the log, null to stop logging.
+     */
+    public void setEventLog(EventLog log) { this.log = log; }
+
+    /**
+     * A getter of the event log.
+     * @return (EventLog) the log, or null.
+     */
+    public EventLog getEventLog() { return log; }
+
+    /**
+     * Log the end of a tick with a checksum of the animals, called by the SimulationEngine.
+     * @param dt (Double) Tick length in seconds.
+     */
+    void ticked(double dt) {
+        EventLog l = log;
+        if (l != null)
+            l.tick(dt, checksum());
+        if (checkpointWanted) {
+            synchronized (checkpointLock) {
+                if (checkpointWanted && checkpoint == null) {
+                    checkpoint = new Checkpoint(animals, getFood());
+                    checkpointLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Open a copy-on-write checkpoint of the world (see Checkpoint).
+     * It is opened by the SimulationEngine at the end of a tick, so all the animals are of the same tick,
+     * and opening it holds the engine for only a few microseconds.
+     * If no tick ends within the wait (the zoo is asleep, or the animals run on their own threads)
+     * it is opened by the calling thread. That is not a consistent cut: threads of the pool or virtual threads
+     * step whenever they wake, so each animal is saved as of its own last step, and an animal in the middle of a step
+     * when the checkpoint opens may be saved part way through it, e.g. moved in x but not yet in y.
+     * Only the SimulationEngine gives a checkpoint of a single instant.
+     * Only one checkpoint is open at a time, until closeCheckpoint is called.
+     * @param waitMillis (Long) how long to wait for the end of a tick.
+     * @return (Checkpoint) the open checkpoint.
+     */
+    public Checkpoint openCheckpoint(long waitMillis) {
+        synchronized (checkpointLock) {
+            if (checkpoint != null)
+                throw new IllegalStateException("A checkpoint is already open");
+            checkpointWanted = true;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+            try {
+                for (long left = deadline - System.nanoTime(); checkpoint == null && left > 0;
+                     left = deadline - System.nanoTime())
+                    TimeUnit.NANOSECONDS.timedWait(checkpointLock, left);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                checkpointWanted = false;
+            }
+            if (checkpoint == null)
+                checkpoint = new Checkpoint(animals, getFood());
+            return checkpoint;
+        }
+    }
+
+    /**
+     * Close the open checkpoint, animals stop saving themselves into it.
+     */
+    public void closeCheckpoint() { checkpoint = null; }
+
+    /**
+     * A getter of the open checkpoint.
+     * @return (Checkpoint) the checkpoint, or null if none is open.
+     */
+    public Checkpoint getCheckpoint() { return checkpoint; }
+
+    /**
+     * A checksum of the location, size and weight of every animal, in registry order.
+     * @return (Long) the checksum.
+     */
+    public long checksum() {
+        long h = 1125899906842597L;
+        for (Animal animal : animals) {
+            h = 31 * h + animal.getX();
+            h = 31 * h + animal.getY();
+            h = 31 * h + animal.getSize();
+            h = 31 * h + Double.doubleToLongBits(animal.getWeight());
+        }
+        return h;
+    }
+
+    /**
+     * A setter of the bounds, the animals bounce off them.
+     * @param width (Integer) Width of the world.
+     * @param height (Integer) Height of the world.
+     * @return True if succeeded, otherwise false.
+     */
+    public boolean setSize(int width, int height) {
+        if (width < 0 || height < 0)
+            return false;
+        this.width = width;
+        this.height = height;
+        return true;
+    }
+
+    /**
+     * A getter of the width.
+     * @return (Integer) width.
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * A getter of the height.
+     * @return (Integer) height.
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * A getter of the animals.
+     * @return (AnimalRegistry) All existing animals.
+     */
+    public AnimalRegistry getAnimals() { return animals; }
+
+    /**
+     * A setter of the food in the world, where the food is.
+     * Its height and weight are drawn from the generator of the world, so a seeded world and its replay
+     * place the same food and go on drawing the same numbers.
+     * @param food (Plant) Cabbage, Lettuce, or Meat object, null for none.
+     * @return True.
+     */
+    public synchronized boolean setFood(Plant food) {
+        if (food != null) {
+            Point location = food.getLocation();
+            food.randomize(random);
+            food.setLocation(location); // Only the height and the weight are random
+        }
+        this.food = food;
+        EventLog l = log;
+        if (l != null)
+            l.food(food);
+        return true;
+    }
+
+    /**
+     * Put food at a random place of the world, drawn from the generator of the world, see setFood.
+     * @param food (Plant) Cabbage, Lettuce, or Meat object.
+     * @return True.
+     */
+    public synchronized boolean placeFood(Plant food) {
+        int size = RenderSnapshot.FOOD_SIZE;
+        food.setLocation(new Point(random.nextInt(Math.max(1, width - size)), random.nextInt(Math.max(1, height - size))));
+        return setFood(food);
+    }
+
+    /**
+     * A getter of the food in the world.
+     * @return (Plant) Cabbage, Lettuce, or Meat object, or null.
+     */
+    public synchronized Plant getFood() { return food; }
+
+    /**
+     * A getter of the clock that pauses, resumes and steps this world.
+     * @return (SimulationClock) the clock.
+     */
+    public SimulationClock getClock() { return clock; }
+
+    /**
+     * A setter of the renderer, called after every publish, at the end of every pass.
+     * It is given the snapshot just published, which it may read only during the call, or null when not publishing.
+     * @param renderer (Consumer) e.g. a repaint of the panel, null to run headless.
+     */
+    public void setRenderer(Consumer<RenderSnapshot> renderer) { this.renderer = renderer; }
+
+    /**
+     * Turn the render snapshots on or off. A world without a renderer does not need them.
+     * @param publishing (Boolean) true to publish a render snapshot after every pass.
+     */
+    public void setPublishing(boolean publishing) {
+        this.publishing = publishing;
+        if (publishing)
+            publish();
+    }
+
+    /**
+     * Publish a render snapshot of the world as it is now, then call the renderer.
+     * Called after every pass by the thread that moves the animals, so no animal is half way through a step.
+     * The snapshot is filled in the back buffer of a TripleBuffer, so the pass goes on with the next tick
+     * while the renderer draws this one.
+     * Other threads, like the user interface, ask for it with requestPublish instead.
+     */
+    public void publish() {
+        Consumer<RenderSnapshot> r = renderer;
+        synchronized (publishLock) { // One producer at a time, published in the order they were taken
+            publishWanted = false;
+            RenderSnapshot frame = null;
+            if (publishing) {
+                frame = frames.back();
+                frame.capture(animals.view(), food, ++published);
+                frames.publish();
+            }
+            if (r != null)
+                r.accept(frame);
+        }
+    }
+
+    /**
+     * Ask for a render snapshot after a change made between passes, e.g. adding an animal or food from the user interface.
+     * The asking thread does not build it: the thread that moves the animals publishes it at the end of its next tick,
+     * or at once while the clock is paused. When the animals run on their own threads, the pass timer publishes it.
+     */
+    public void requestPublish() {
+        publishWanted = true;
+        clock.wake();
+    }
+
+    /**
+     * Check if a render snapshot was asked for since the last one was published.
+     * @return True if requestPublish was called since, otherwise false.
+     */
+    boolean isPublishRequested() { return publishWanted; }
+
+    /**
+     * Publish a render snapshot if one was asked for, the work of a flush that has no pass to run.
+     */
+    private void publishIfRequested() {
+        if (publishWanted)
+            publish();
+    }
+
+    /**
+     * Take the newest render snapshot, never blocks.
+     * For the one thread that draws the world: the snapshot does not change until its next call.
+     * @return (RenderSnapshot) what to draw, empty if none was published.
+     */
+    public RenderSnapshot takeRenderSnapshot() { return frames.front(); }
+
+    /**
+     * A getter of the handoff of the render snapshots.
+     * @return (TripleBuffer) the buffers, e.g. for their counts of published and skipped frames.
+     */
+    public TripleBuffer<RenderSnapshot> getFrames() { return frames; }
+
+    /**
+     * Ask for a pass in the next frame.
+     * Requests made during the same frame share a single pass.
+     */
+    public void requestPass() { passes.request(); }
+
+    /**
+     * A getter of the pass scheduler.
+     * @return (FrameScheduler) scheduler of the passes.
+     */
+    public FrameScheduler getFrameScheduler() { return passes; }
+
+    /**
+     * This function is called after each operation made in the zoo.
+     * Its purpose is to handle changes and perform actions.
+     * Hunting is done in two steps. Under the lock of the world the food is eaten and what hunting reads
+     * of the animals is copied (see Sight). The detect step then finds, for every prey, the predators
+     * in hunting range of the copy; it only reads, so it runs in parallel over the cells of a spatial grid,
+     * without the lock, and getFood, setFood and the user interface do not wait for it.
+     * The resolve step, under the lock again, goes over the prey in the order they were added and lets
+     * the closest predator still able to eat it do so (the older one on a tie),
+     * so the outcome does not depend on the threads.
+     */
+    public void manage() {
+        synchronized (passLock) {
+            List<Animal> all;
+            Sight sight;
+            synchronized (this) {
+                feed();
+                all = animals.snapshot();
+                sight = new Sight(all);
+            }
+            Hunt[][] hunts = detect(all, sight);
+            synchronized (this) {
+                resolve(all, hunts);
+            }
+        }
+        publish();
+    }
+
+    /**
+     * The first animal close enough to the food that can eat it, eats it.
+     */
+    private void feed() {
+        if (food != null) {
+            for (Animal animal : animals) {
+                if (Math.abs(animal.getX() - food.getLocation().getX()) <= animal.getEAT_DISTANCE()
+                        && Math.abs(animal.getY() - food.getLocation().getY()) <= animal.getEAT_DISTANCE()
+                        && animal.getDiet().canEat(food.getFoodType())) {
+                    animal.eat(food);
+                    animal.eatInc();
+                    food = null;
+                    EventLog l = log;
+                    if (l != null)
+                        l.feed(animals.getId(animal));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * The parallel step of hunting, run without the lock of the world on a copy of the animals.
+     * @param all (List) the animals in the order they were added.
+     * @param sight (Sight) what hunting reads of them, indexed like all.
+     * @return (Hunt[][]) the hunts of each prey, indexed like all, closest first.
+     */
+    private Hunt[][] detect(List<Animal> all, Sight sight) {
+        if (all.isEmpty())
+            grid.clear();
+        HashMap<Animal, Integer> order = new HashMap<>(all.size() * 2);
+        for (int i = 0; i < all.size(); i++) {
+            Animal animal = all.get(i);
+            order.put(animal, i);
+            grid.update(animal, sight.x[i], sight.y[i]);
+        }
+        Hunt[][] hunts = new Hunt[all.size()][];
+        ConcurrentLinkedQueue<Animal> stale = new ConcurrentLinkedQueue<>();
+        Detect detect = new Detect(grid.buckets(), order, sight, hunts, stale);
+        if (all.size() < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2)
+            detect.compute();
+        else ForkJoinPool.commonPool().invoke(detect);
+        for (Animal animal : stale) // Removed from the zoo since the last pass
+            grid.remove(animal);
+        return hunts;
+    }
+
+    /**
+     * The sequential step of hunting, applies the hunts found by the detect step.
+     * The animals may have changed since they were copied, so the predator is checked again before it eats.
+     * @param all (List) the animals in the order they were added.
+     * @param hunts (Hunt[][]) the hunts of each prey, indexed like all, closest first.
+     */
+    private void resolve(List<Animal> all, Hunt[][] hunts) {
+        for (int i = 0; i < hunts.length; i++) {
+            if (hunts[i] == null)
+                continue;
+            Animal prey = all.get(i);
+            for (Hunt hunt : hunts[i]) {
+                Animal predator = hunt.predator;
+                if (prey.isStopped())
+                    break;
+                if (predator.isStopped() // Eaten earlier in this pass
+                        || predator.getWeight() < 2 * prey.getWeight())
+                    continue;
+                predator.eat(prey);
+                predator.eatInc();
+                prey.stop();
+                EventLog l = log;
+                if (l != null) {
+                    int id = animals.getId(prey);
+                    l.eat(animals.getId(predator), id);
+                    l.death(id);
+                }
+                animals.remove(prey);
+                grid.remove(prey);
+            }
+        }
+    }
+
+    /**
+     * A predator in hunting range of a prey, found by the detect step.
+     */
+    private record Hunt(Animal predator, int order, double distance) implements Comparable<Hunt> {
+        @Override
+        public int compareTo(Hunt other) {
+            int c = Double.compare(distance, other.distance);
+            return c != 0 ? c : Integer.compare(order, other.order);
+        }
+    }
+
+    /**
+     * What hunting reads of the animals of a pass, copied under the lock of the world and never changed,
+     * so the detect step reads it from any thread without a lock. Indexed like the animals of the pass.
+     */
+    private static final class Sight {
+        final int[] x, y, size;
+        final double[] weight;
+        final boolean[] predator, prey, stopped;
+
+        Sight(List<Animal> all) {
+            int n = all.size();
+            x = new int[n]; y = new int[n]; size = new int[n];
+            weight = new double[n];
+            predator = new boolean[n]; prey = new boolean[n]; stopped = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                Animal animal = all.get(i);
+                x[i] = animal.getX();
+                y[i] = animal.getY();
+                size[i] = animal.getSize();
+                weight[i] = animal.getWeight();
+                predator[i] = isPredator(animal);
+                prey[i] = isPrey(animal);
+                stopped[i] = animal.isStopped();
+            }
+        }
+    }
+
+    /**
+     * The parallel step of hunting, splits the grid cells until few enough are left for one thread.
+     * Each prey is handled by the task of its own cell, and writes only its own slot of hunts.
+     * Only the copy of the animals is read, never the animals.
+     */
+    private final class Detect extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // Never serialized, ForkJoinTask is Serializable
+        private final List<List<Animal>> cells;
+        private final Map<Animal, Integer> order;
+        private final Sight sight;
+        private final Hunt[][] hunts;
+        private final Queue<Animal> stale;
+
+        Detect(List<List<Animal>> cells, Map<Animal, Integer> order, Sight sight, Hunt[][] hunts, Queue<Animal> stale) {
+            this.cells = cells;
+            this.order = order;
+            this.sight = sight;
+            this.hunts = hunts;
+            this.stale = stale;
+        }
+
+        @Override
+        protected void compute() {
+            if (cells.size() > CELLS_PER_TASK) {
+                int mid = cells.size() / 2;
+                invokeAll(new Detect(cells.subList(0, mid), order, sight, hunts, stale),
+                        new Detect(cells.subList(mid, cells.size()), order, sight, hunts, stale));
+                return;
+            }
+            Sight s = sight;
+            ArrayList<Animal> candidates = new ArrayList<>();
+            ArrayList<Hunt> found = new ArrayList<>();
+            for (List<Animal> cell : cells)
+                for (Animal prey : cell) {
+                    Integer index = order.get(prey);
+                    if (index == null) { // Removed from the zoo since the last pass
+                        stale.add(prey);
+                        continue;
+                    }
+                    int p = index;
+                    if (!s.prey[p] || s.stopped[p])
+                        continue;
+                    candidates.clear();
+                    found.clear();
+                    grid.query(s.x[p], s.y[p], s.size[p], candidates);
+                    double minWeight = 2 * s.weight[p];
+                    for (Animal predator : candidates) {
+                        Integer predatorIndex = order.get(predator);
+                        if (predator == prey || predatorIndex == null)
+                            continue;
+                        int q = predatorIndex;
+                        if (!s.predator[q] || s.weight[q] < minWeight || s.stopped[q])
+                            continue;
+                        double distance = Point.distance(s.x[q], s.y[q], s.x[p], s.y[p]);
+                        if (distance < s.size[p])
+                            found.add(new Hunt(predator, q, distance));
+                    }
+                    if (!found.isEmpty()) {
+                        Hunt[] sorted = found.toArray(new Hunt[0]);
+                        Arrays.sort(sorted);
+                        hunts[index] = sorted;
+                    }
+                }
+        }
+    }
+
+    /**
+     * Check if an animal can hunt other animals.
+     * @param animal (Animal) to check.
+     * @return True for carnivore and omnivore animals.
+     */
+    private static boolean isPredator(Animal animal) {
+        return animal.getDiet() instanceof Carnivore || animal.getDiet() instanceof Omnivore;
+    }
+
+    /**
+     * Check if an animal can be hunted by other animals.
+     * @param animal (Animal) to check.
+     * @return True for herbivore and omnivore animals.
+     */
+    private static boolean isPrey(Animal animal) {
+        return animal.getDiet() instanceof Herbivore || animal.getDiet() instanceof Omnivore;
+    }
+}
@@ -1,6 +1,6 @@
 package zoo;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Scanner;
 
 import animals.*;
@@ -200,9 +200,9 @@ public class ZooActions {
 				System.out.println("The movement was successful");
 			else System.out.println("Movement failed");
 		}
+		SplittableRandom rand = new SplittableRandom(Long.getLong("zoo.seed", System.nanoTime())); // -Dzoo.seed repeats a run
 		for (int i=0; i<size/2; i++)
 		{
-			Random rand = new Random();
 			int res1, res2;
 			do {
 				res1 = rand.nextInt(size);